@@ -0,0 +1,91 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding columns of locations, reported per location so the
+ * scores compare directly with EncodeBenchmark and DecodeBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    @Param({"10", "11", "12"})
+    public int codeLength;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] packed;
+    private char[] slab;
+    private String[] codes;
+    private double[] latitudeOut;
+    private double[] longitudeOut;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = CodeResources.locations(BATCH_SIZE);
+        latitudes = locations[0];
+        longitudes = locations[1];
+        packed = new long[BATCH_SIZE];
+        slab = new char[BATCH_SIZE * olc.getEncodedLength(codeLength)];
+        codes = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            codes[i] = olc.encode(latitudes[i], longitudes[i], codeLength);
+        }
+        latitudeOut = new double[BATCH_SIZE];
+        longitudeOut = new double[BATCH_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] encodeBatchPacked() {
+        olc.encodeBatch(latitudes, longitudes, codeLength, packed);
+        return packed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public char[] encodeBatchChars() {
+        olc.encodeBatch(latitudes, longitudes, codeLength, slab);
+        return slab;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void encodeEach(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(olc.encodeToLong(latitudes[i], longitudes[i], codeLength));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] decodeCenters() {
+        olc.decodeCenters(codes, latitudeOut, longitudeOut);
+        return latitudeOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] decodeCentersPacked() {
+        olc.encodeBatch(latitudes, longitudes, codeLength, packed);
+        olc.decodeCenters(packed, latitudeOut, longitudeOut);
+        return latitudeOut;
+    }
+}
@@ -0,0 +1,73 @@
+package com.windlessuser.olc.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the CSV files shared with the tests in src/test/resources.
+ */
+final class CodeResources {
+
+    private CodeResources() {
+    }
+
+    /**
+     * Read the records of a CSV resource. The files have no quoted fields, so
+     * each line is simply split on commas.
+     *
+     * @param name: The name of the file in src/test/resources.
+     */
+    static List<String[]> read(String name) throws IOException {
+        InputStream in = CodeResources.class.getResourceAsStream("/" + name);
+        if (in == null) {
+            throw new IOException("Missing resource " + name);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            List<String[]> records = new ArrayList<String[]>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > 0) {
+                    records.add(line.split(","));
+                }
+            }
+            return records;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Read the first column of a CSV resource.
+     *
+     * @param name: The name of the file in src/test/resources.
+     */
+    static String[] codes(String name) throws IOException {
+        List<String[]> records = read(name);
+        String[] codes = new String[records.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = records.get(i)[0];
+        }
+        return codes;
+    }
+
+    /**
+     * Generate random locations, the same ones on every run.
+     *
+     * @param count: The number of locations.
+     * @return The latitudes in the first array and the longitudes in the second.
+     */
+    static double[][] locations(int count) {
+        java.util.Random random = new java.util.Random(20150817L);
+        double[][] locations = new double[2][count];
+        for (int i = 0; i < count; i++) {
+            locations[0][i] = random.nextDouble() * 180 - 90;
+            locations[1][i] = random.nextDouble() * 360 - 180;
+        }
+        return locations;
+    }
+}
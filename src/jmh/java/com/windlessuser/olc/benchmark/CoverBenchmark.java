@@ -0,0 +1,29 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OlcCover;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Covering a street-sized viewport with different cell budgets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoverBenchmark {
+
+    @Param({"8", "64", "256"})
+    public int maxCells;
+
+    @Benchmark
+    public long[] coverBox() {
+        return OlcCover.coverBox(47.365, 8.525, 47.372, 8.531, maxCells, 12);
+    }
+}
@@ -0,0 +1,90 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.MutableCodeArea;
+import com.windlessuser.olc.OpenLocationCode;
+import com.windlessuser.olc.ParsedCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding full codes of each length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DecodeBenchmark {
+
+    // Number of codes cycled through, a power of two.
+    private static final int CODE_COUNT = 1024;
+
+    @Param({"2", "4", "6", "8", "10", "11", "12", "13", "14", "15"})
+    public int codeLength;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private final MutableCodeArea area = new MutableCodeArea();
+    private String[] codes;
+    private ParsedCode[] parsedCodes;
+    private ByteBuffer bytes;
+    private int[] offsets;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = CodeResources.locations(CODE_COUNT);
+        codes = new String[CODE_COUNT];
+        parsedCodes = new ParsedCode[CODE_COUNT];
+        for (int i = 0; i < CODE_COUNT; i++) {
+            codes[i] = olc.encode(locations[0][i], locations[1][i], codeLength);
+            parsedCodes[i] = olc.parse(codes[i]);
+        }
+        int stride = codes[0].length();
+        bytes = ByteBuffer.allocateDirect(CODE_COUNT * stride);
+        offsets = new int[CODE_COUNT];
+        for (int i = 0; i < CODE_COUNT; i++) {
+            offsets[i] = bytes.position();
+            olc.encodeTo(locations[0][i], locations[1][i], codeLength, bytes);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (CODE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public OpenLocationCode.CodeArea decode() {
+        return olc.decode(codes[next()]);
+    }
+
+    @Benchmark
+    public MutableCodeArea decodeInto() {
+        olc.decodeInto(codes[next()], area);
+        return area;
+    }
+
+    @Benchmark
+    public MutableCodeArea decodeIntoFromDirectBuffer() {
+        int i = next();
+        olc.decodeInto(bytes, offsets[i], codes[i].length(), area);
+        return area;
+    }
+
+    @Benchmark
+    public OpenLocationCode.CodeArea decodeParsed() {
+        return olc.decode(parsedCodes[next()]);
+    }
+
+    @Benchmark
+    public ParsedCode parse() {
+        return olc.parse(codes[next()]);
+    }
+}
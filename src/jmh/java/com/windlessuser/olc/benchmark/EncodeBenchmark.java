@@ -0,0 +1,78 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding single locations at each code length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EncodeBenchmark {
+
+    // Number of locations cycled through, a power of two.
+    private static final int LOCATION_COUNT = 1024;
+
+    @Param({"2", "4", "6", "8", "10", "11", "12", "13", "14", "15"})
+    public int codeLength;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private final char[] buffer = new char[16];
+    private final StringBuilder builder = new StringBuilder(16);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(16);
+    private double[] latitudes;
+    private double[] longitudes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = CodeResources.locations(LOCATION_COUNT);
+        latitudes = locations[0];
+        longitudes = locations[1];
+    }
+
+    private int next() {
+        index = (index + 1) & (LOCATION_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String encode() {
+        int i = next();
+        return olc.encode(latitudes[i], longitudes[i], codeLength);
+    }
+
+    @Benchmark
+    public char[] encodeToCharArray() {
+        int i = next();
+        olc.encodeTo(latitudes[i], longitudes[i], codeLength, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder encodeToStringBuilder() {
+        int i = next();
+        builder.setLength(0);
+        olc.encodeTo(latitudes[i], longitudes[i], codeLength, builder);
+        return builder;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeToDirectBuffer() {
+        int i = next();
+        bytes.clear();
+        olc.encodeTo(latitudes[i], longitudes[i], codeLength, bytes);
+        return bytes;
+    }
+}
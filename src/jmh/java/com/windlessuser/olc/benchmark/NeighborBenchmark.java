@@ -0,0 +1,94 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OlcCells;
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the neighbors of a cell from its digits, against decoding it,
+ * moving the center and encoding again, and finding the cells near a point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NeighborBenchmark {
+
+    // Number of locations cycled through, a power of two.
+    private static final int LOCATION_COUNT = 1024;
+
+    @Param({"8", "10", "11"})
+    public int codeLength;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] codes;
+    private String[] strings;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = CodeResources.locations(LOCATION_COUNT);
+        latitudes = locations[0];
+        longitudes = locations[1];
+        codes = new long[LOCATION_COUNT];
+        strings = new String[LOCATION_COUNT];
+        for (int i = 0; i < LOCATION_COUNT; i++) {
+            codes[i] = olc.encodeToLong(locations[0][i], locations[1][i], codeLength);
+            strings[i] = olc.encode(locations[0][i], locations[1][i], codeLength);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (LOCATION_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public long[] neighborsPacked() {
+        return OlcCells.neighbors(codes[next()]);
+    }
+
+    @Benchmark
+    public String[] neighborsString() {
+        return OlcCells.neighbors(strings[next()]);
+    }
+
+    @Benchmark
+    public String[] neighborsByDecoding() {
+        OpenLocationCode.CodeArea area = olc.decode(strings[next()]);
+        double height = area.getLatitudeHi() - area.getLatitudeLo();
+        double width = area.getLongitudeHi() - area.getLongitudeLo();
+        String[] found = new String[8];
+        int count = 0;
+        for (int row = -1; row <= 1; row++) {
+            for (int column = -1; column <= 1; column++) {
+                if (row != 0 || column != 0) {
+                    found[count++] = olc.encode(area.getLatitudeCenter() + row * height,
+                            area.getLongitudeCenter() + column * width, codeLength);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long[] ring3() {
+        return OlcCells.ring(codes[next()], 3);
+    }
+
+    @Benchmark
+    public long[] disk500m() {
+        int i = next();
+        return OlcCells.disk(latitudes[i], longitudes[i], 500, codeLength);
+    }
+}
@@ -0,0 +1,78 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.MutableCodeArea;
+import com.windlessuser.olc.OlcLong;
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding packed codes, at each length that can be packed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PackedCodeBenchmark {
+
+    // Number of locations cycled through, a power of two.
+    private static final int LOCATION_COUNT = 1024;
+
+    @Param({"2", "4", "6", "8", "10", "11", "12"})
+    public int codeLength;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private final MutableCodeArea area = new MutableCodeArea();
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] codes;
+    private String[] strings;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = CodeResources.locations(LOCATION_COUNT);
+        latitudes = locations[0];
+        longitudes = locations[1];
+        codes = new long[LOCATION_COUNT];
+        strings = new String[LOCATION_COUNT];
+        for (int i = 0; i < LOCATION_COUNT; i++) {
+            codes[i] = olc.encodeToLong(latitudes[i], longitudes[i], codeLength);
+            strings[i] = OlcLong.toString(codes[i]);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (LOCATION_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public long encodeToLong() {
+        int i = next();
+        return olc.encodeToLong(latitudes[i], longitudes[i], codeLength);
+    }
+
+    @Benchmark
+    public MutableCodeArea decodeInto() {
+        olc.decodeInto(codes[next()], area);
+        return area;
+    }
+
+    @Benchmark
+    public String toCodeString() {
+        return OlcLong.toString(codes[next()]);
+    }
+
+    @Benchmark
+    public long parse() {
+        return OlcLong.parse(strings[next()]);
+    }
+}
@@ -0,0 +1,78 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortening the codes of places around one city and recovering them again,
+ * reported per code so the scores compare directly with ShortCodeBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShortCodeBatchBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final double LATITUDE = 47.3769;
+    private static final double LONGITUDE = 8.5417;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private String[] codes;
+    private String[] shortCodes;
+    private String[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20150817L);
+        codes = new String[BATCH_SIZE];
+        shortCodes = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            codes[i] = olc.encode(LATITUDE + random.nextGaussian() * 0.05,
+                    LONGITUDE + random.nextGaussian() * 0.05, 10);
+            shortCodes[i] = olc.shorten(codes[i], LATITUDE, LONGITUDE);
+        }
+        out = new String[BATCH_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String[] recoverNearestBatch() {
+        olc.recoverNearestBatch(shortCodes, LATITUDE, LONGITUDE, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void recoverNearestEach(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(olc.recoverNearest(shortCodes[i], LATITUDE, LONGITUDE));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String[] shortenBatch() {
+        olc.shortenBatch(codes, LATITUDE, LONGITUDE, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void shortenEach(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(olc.shorten(codes[i], LATITUDE, LONGITUDE));
+        }
+    }
+}
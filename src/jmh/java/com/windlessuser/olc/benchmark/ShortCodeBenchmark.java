@@ -0,0 +1,63 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortening and recovering the codes from ShortCodeTests.csv.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShortCodeBenchmark {
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private String[] codes;
+    private String[] shortCodes;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String[]> records = CodeResources.read("ShortCodeTests.csv");
+        codes = new String[records.size()];
+        shortCodes = new String[records.size()];
+        latitudes = new double[records.size()];
+        longitudes = new double[records.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String[] record = records.get(i);
+            codes[i] = record[0];
+            latitudes[i] = Double.parseDouble(record[1]);
+            longitudes[i] = Double.parseDouble(record[2]);
+            shortCodes[i] = record[3];
+        }
+    }
+
+    private int next() {
+        index = index + 1 == codes.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public String shorten() {
+        int i = next();
+        return olc.shorten(codes[i], latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public String recoverNearest() {
+        int i = next();
+        return olc.recoverNearest(shortCodes[i], latitudes[i], longitudes[i]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.windlessuser.olc.benchmark;
+
+import com.windlessuser.olc.OpenLocationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating the full, short and invalid codes from the test resources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidityBenchmark {
+
+    @Param({"ValidFullCodes.csv", "ValidShortCodes.csv", "InvalidCodes.csv"})
+    public String codeFile;
+
+    private final OpenLocationCode olc = new OpenLocationCode();
+    private String[] codes;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        codes = CodeResources.codes(codeFile);
+    }
+
+    private String next() {
+        index = index + 1 == codes.length ? 0 : index + 1;
+        return codes[index];
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return olc.isValid(next());
+    }
+
+    @Benchmark
+    public boolean isShort() {
+        return olc.isShort(next());
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        return olc.isFull(next());
+    }
+}
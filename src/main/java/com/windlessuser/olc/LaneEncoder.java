@@ -0,0 +1,104 @@
+package com.windlessuser.olc;
+
+/**
+ * Encodes blocks of locations into packed codes one digit position at a time.
+ * The locations of a block are first converted to integers in lanes, and then
+ * each digit is taken out of every lane with the same operation before
+ * moving on to the next digit. The loops over the lanes have no branches or
+ * dependencies between lanes, so the JIT can unroll them and the CPU can
+ * overlap the divisions, which the one-location-at-a-time loop can't do.
+ * Results are identical to OpenLocationCode.encodeToLong.
+ * <p/>
+ * An instance holds the lane arrays, so it is not thread safe.
+ */
+final class LaneEncoder {
+
+    // Number of locations encoded together. The lanes fit in the L1 cache.
+    static final int LANE_COUNT_ = 256;
+
+    private final int codeLength;
+    private final int pairLength;
+    private final int gridLength;
+    private final int[] latPairs = new int[LANE_COUNT_];
+    private final int[] lngPairs = new int[LANE_COUNT_];
+    private final int[] latGrid = new int[LANE_COUNT_];
+    private final int[] lngGrid = new int[LANE_COUNT_];
+
+    /**
+     * @param codeLength: A number of significant digits, as returned by
+     *                    OpenLocationCode.normalizePackedLength.
+     */
+    LaneEncoder(int codeLength) {
+        this.codeLength = codeLength;
+        this.pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        this.gridLength = codeLength - pairLength;
+    }
+
+    /**
+     * Encode a range of locations.
+     *
+     * @param latitudes:  Latitudes in signed decimal degrees.
+     * @param longitudes: Longitudes in signed decimal degrees.
+     * @param from:       The index of the first location.
+     * @param to:         The index after the last location.
+     * @param out:        Receives the packed code of each location, at the same index.
+     */
+    void encode(double[] latitudes, double[] longitudes, int from, int to, long[] out) {
+        for (int start = from; start < to; start += LANE_COUNT_) {
+            encodeBlock(latitudes, longitudes, start, Math.min(LANE_COUNT_, to - start), out);
+        }
+    }
+
+    private void encodeBlock(double[] latitudes, double[] longitudes, int start, int count, long[] out) {
+        for (int j = 0; j < count; j++) {
+            long latVal = OpenLocationCode.latitudeToInteger(latitudes[start + j]);
+            long lngVal = OpenLocationCode.longitudeToInteger(longitudes[start + j]);
+            latPairs[j] = (int) (latVal / OpenLocationCode.GRID_LAT_PRECISION_);
+            lngPairs[j] = (int) (lngVal / OpenLocationCode.GRID_LNG_PRECISION_);
+            latGrid[j] = (int) (latVal % OpenLocationCode.GRID_LAT_PRECISION_);
+            lngGrid[j] = (int) (lngVal % OpenLocationCode.GRID_LNG_PRECISION_);
+            out[start + j] = codeLength;
+        }
+        // Drop the places that aren't wanted.
+        for (int i = pairLength; i < OpenLocationCode.PAIR_CODE_LENGTH_; i += 2) {
+            for (int j = 0; j < count; j++) {
+                latPairs[j] /= OpenLocationCode.ENCODING_BASE_;
+                lngPairs[j] /= OpenLocationCode.ENCODING_BASE_;
+            }
+        }
+        for (int i = gridLength; i < OpenLocationCode.GRID_CODE_LENGTH_; i++) {
+            for (int j = 0; j < count; j++) {
+                latGrid[j] /= OpenLocationCode.GRID_ROWS_;
+                lngGrid[j] /= OpenLocationCode.GRID_COLUMNS_;
+            }
+        }
+        // Take out the digits from the last one back, so each lane only divides.
+        int shift = OlcLong.digitShift(codeLength - 1);
+        for (int i = 0; i < gridLength; i++) {
+            for (int j = 0; j < count; j++) {
+                int lat = latGrid[j];
+                int lng = lngGrid[j];
+                int latNext = lat / OpenLocationCode.GRID_ROWS_;
+                int lngNext = lng / OpenLocationCode.GRID_COLUMNS_;
+                out[start + j] |= (long) ((lat - latNext * OpenLocationCode.GRID_ROWS_) *
+                        OpenLocationCode.GRID_COLUMNS_ + lng - lngNext * OpenLocationCode.GRID_COLUMNS_) << shift;
+                latGrid[j] = latNext;
+                lngGrid[j] = lngNext;
+            }
+            shift += OlcLong.DIGIT_BITS_;
+        }
+        for (int i = 0; i < pairLength; i += 2) {
+            for (int j = 0; j < count; j++) {
+                int lat = latPairs[j];
+                int lng = lngPairs[j];
+                int latNext = lat / OpenLocationCode.ENCODING_BASE_;
+                int lngNext = lng / OpenLocationCode.ENCODING_BASE_;
+                out[start + j] |= (long) (lng - lngNext * OpenLocationCode.ENCODING_BASE_) << shift |
+                        (long) (lat - latNext * OpenLocationCode.ENCODING_BASE_) << (shift + OlcLong.DIGIT_BITS_);
+                latPairs[j] = latNext;
+                lngPairs[j] = lngNext;
+            }
+            shift += 2 * OlcLong.DIGIT_BITS_;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.windlessuser.olc;
+
+/**
+ * A set of packed codes, hashed into a primitive array.
+ * Zero marks an empty slot, which is safe because a packed code always has a
+ * length and so is never zero. The set only grows; it is filled once and
+ * then only read, so it can be read from several threads once it is
+ * published safely.
+ */
+final class LongHashSet {
+
+    private long[] slots;
+    private int size;
+
+    /**
+     * @param expected: The number of codes expected, to size the table.
+     */
+    LongHashSet(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add a code to the set.
+     *
+     * @param code: A packed code, which must not be zero.
+     */
+    void add(long code) {
+        if (size * 2 >= slots.length) {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            size = 0;
+            for (int i = 0; i < old.length; i++) {
+                if (old[i] != 0) {
+                    add(old[i]);
+                }
+            }
+        }
+        int mask = slots.length - 1;
+        for (int i = slot(code, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == code) {
+                return;
+            }
+            if (slots[i] == 0) {
+                slots[i] = code;
+                size++;
+                return;
+            }
+        }
+    }
+
+    boolean contains(long code) {
+        int mask = slots.length - 1;
+        for (int i = slot(code, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == code) {
+                return true;
+            }
+            if (slots[i] == 0) {
+                return false;
+            }
+        }
+    }
+
+    private static int slot(long code, int mask) {
+        // The high bits of a Fibonacci hash are the best mixed.
+        return (int) ((code * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
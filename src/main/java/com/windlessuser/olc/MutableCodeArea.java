@@ -0,0 +1,56 @@
+package com.windlessuser.olc;
+
+/**
+ * A reusable holder for a decoded area.
+ * OpenLocationCode.decodeInto writes into an instance of this class instead
+ * of creating a new CodeArea, so a caller decoding many codes can reuse one
+ * instance and decode without allocating. Instances are not thread safe;
+ * use one per thread.
+ */
+public final class MutableCodeArea {
+
+    private double latitudeLo;
+    private double longitudeLo;
+    private double latitudeHi;
+    private double longitudeHi;
+    private int codeLength;
+
+    /**
+     * Replace the area held.
+     */
+    void set(double latitudeLo, double longitudeLo, double latitudeHi, double longitudeHi, int codeLength) {
+        this.latitudeLo = latitudeLo;
+        this.longitudeLo = longitudeLo;
+        this.latitudeHi = latitudeHi;
+        this.longitudeHi = longitudeHi;
+        this.codeLength = codeLength;
+    }
+
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    public double getLatitudeCenter() {
+        return Math.min(latitudeLo + (latitudeHi - latitudeLo) / 2, OpenLocationCode.LATITUDE_MAX_);
+    }
+
+    public double getLatitudeHi() {
+        return latitudeHi;
+    }
+
+    public double getLatitudeLo() {
+        return latitudeLo;
+    }
+
+    public double getLongitudeCenter() {
+        return Math.min(longitudeLo + (longitudeHi - longitudeLo) / 2, OpenLocationCode.LONGITUDE_MAX_);
+    }
+
+    public double getLongitudeHi() {
+        return longitudeHi;
+    }
+
+    public double getLongitudeLo() {
+        return longitudeLo;
+    }
+}
@@ -0,0 +1,250 @@
+package com.windlessuser.olc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Static access to the Open Location Code methods.
+ * Every method delegates to one shared OpenLocationCode. OpenLocationCode has
+ * no fields and its tables are filled in when the class is initialized, before
+ * any thread can use them, so these methods can be called from any number of
+ * threads at once without synchronization. The values they return, CodeArea
+ * and ParsedCode, are immutable. MutableCodeArea is not, so each thread
+ * decoding with decodeInto needs its own.
+ */
+public final class Olc {
+
+    private static final OpenLocationCode INSTANCE = new OpenLocationCode();
+
+    private Olc() {
+    }
+
+    /**
+     * The shared instance that the static methods use, for code that takes an
+     * OpenLocationCode.
+     */
+    public static OpenLocationCode getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * See OpenLocationCode.isValid.
+     */
+    public static boolean isValid(String code) {
+        return INSTANCE.isValid(code);
+    }
+
+    /**
+     * See OpenLocationCode.isShort.
+     */
+    public static boolean isShort(String code) {
+        return INSTANCE.isShort(code);
+    }
+
+    /**
+     * See OpenLocationCode.isFull.
+     */
+    public static boolean isFull(String code) {
+        return INSTANCE.isFull(code);
+    }
+
+    /**
+     * See OpenLocationCode.parse.
+     */
+    public static ParsedCode parse(String code) {
+        return INSTANCE.parse(code);
+    }
+
+    /**
+     * See OpenLocationCode.encode.
+     */
+    public static String encode(double latitude, double longitude, int codeLength) {
+        return INSTANCE.encode(latitude, longitude, codeLength);
+    }
+
+    /**
+     * See OpenLocationCode.encodeTo.
+     */
+    public static int encodeTo(double latitude, double longitude, int codeLength, char[] dst, int off) {
+        return INSTANCE.encodeTo(latitude, longitude, codeLength, dst, off);
+    }
+
+    /**
+     * See OpenLocationCode.encodeTo.
+     */
+    public static int encodeTo(double latitude, double longitude, int codeLength, Appendable out)
+            throws IOException {
+        return INSTANCE.encodeTo(latitude, longitude, codeLength, out);
+    }
+
+    /**
+     * See OpenLocationCode.encodeTo.
+     */
+    public static int encodeTo(double latitude, double longitude, int codeLength, StringBuilder out) {
+        return INSTANCE.encodeTo(latitude, longitude, codeLength, out);
+    }
+
+    /**
+     * See OpenLocationCode.encodeTo.
+     */
+    public static int encodeTo(double latitude, double longitude, int codeLength, byte[] dst, int off) {
+        return INSTANCE.encodeTo(latitude, longitude, codeLength, dst, off);
+    }
+
+    /**
+     * See OpenLocationCode.encodeTo.
+     */
+    public static int encodeTo(double latitude, double longitude, int codeLength, ByteBuffer dst) {
+        return INSTANCE.encodeTo(latitude, longitude, codeLength, dst);
+    }
+
+    /**
+     * See OpenLocationCode.encodeToLong.
+     */
+    public static long encodeToLong(double latitude, double longitude, int codeLength) {
+        return INSTANCE.encodeToLong(latitude, longitude, codeLength);
+    }
+
+    /**
+     * See OpenLocationCode.encodeBatch.
+     */
+    public static void encodeBatch(double[] latitudes, double[] longitudes, int codeLength, long[] out) {
+        INSTANCE.encodeBatch(latitudes, longitudes, codeLength, out);
+    }
+
+    /**
+     * See OpenLocationCode.encodeBatch.
+     */
+    public static void encodeBatch(double[] latitudes, double[] longitudes, int codeLength, char[] out) {
+        INSTANCE.encodeBatch(latitudes, longitudes, codeLength, out);
+    }
+
+    /**
+     * See OpenLocationCode.getEncodedLength.
+     */
+    public static int getEncodedLength(int codeLength) {
+        return INSTANCE.getEncodedLength(codeLength);
+    }
+
+    /**
+     * See OpenLocationCode.decode.
+     */
+    public static OpenLocationCode.CodeArea decode(String code) {
+        return INSTANCE.decode(code);
+    }
+
+    /**
+     * See OpenLocationCode.decode.
+     */
+    public static OpenLocationCode.CodeArea decode(ParsedCode code) {
+        return INSTANCE.decode(code);
+    }
+
+    /**
+     * See OpenLocationCode.decodeInto.
+     */
+    public static void decodeInto(CharSequence code, MutableCodeArea out) {
+        INSTANCE.decodeInto(code, out);
+    }
+
+    /**
+     * See OpenLocationCode.decodeInto.
+     */
+    public static void decodeInto(byte[] src, int off, int len, MutableCodeArea out) {
+        INSTANCE.decodeInto(src, off, len, out);
+    }
+
+    /**
+     * See OpenLocationCode.decodeInto.
+     */
+    public static void decodeInto(ByteBuffer src, int off, int len, MutableCodeArea out) {
+        INSTANCE.decodeInto(src, off, len, out);
+    }
+
+    /**
+     * See OpenLocationCode.decodeLong.
+     */
+    public static OpenLocationCode.CodeArea decodeLong(long code) {
+        return INSTANCE.decodeLong(code);
+    }
+
+    /**
+     * See OpenLocationCode.decodeInto.
+     */
+    public static void decodeInto(long code, MutableCodeArea out) {
+        INSTANCE.decodeInto(code, out);
+    }
+
+    /**
+     * See OpenLocationCode.decodeBatch.
+     */
+    public static void decodeBatch(CharSequence[] codes, double[] latitudeLo, double[] longitudeLo,
+                                   double[] latitudeHi, double[] longitudeHi) {
+        INSTANCE.decodeBatch(codes, latitudeLo, longitudeLo, latitudeHi, longitudeHi);
+    }
+
+    /**
+     * See OpenLocationCode.decodeBatch.
+     */
+    public static void decodeBatch(long[] codes, double[] latitudeLo, double[] longitudeLo,
+                                   double[] latitudeHi, double[] longitudeHi) {
+        INSTANCE.decodeBatch(codes, latitudeLo, longitudeLo, latitudeHi, longitudeHi);
+    }
+
+    /**
+     * See OpenLocationCode.decodeCenters.
+     */
+    public static void decodeCenters(CharSequence[] codes, double[] latitudes, double[] longitudes) {
+        INSTANCE.decodeCenters(codes, latitudes, longitudes);
+    }
+
+    /**
+     * See OpenLocationCode.decodeCenters.
+     */
+    public static void decodeCenters(long[] codes, double[] latitudes, double[] longitudes) {
+        INSTANCE.decodeCenters(codes, latitudes, longitudes);
+    }
+
+    /**
+     * See OpenLocationCode.recoverNearest.
+     */
+    public static String recoverNearest(String shortCode, double referenceLatitude, double referenceLongitude) {
+        return INSTANCE.recoverNearest(shortCode, referenceLatitude, referenceLongitude);
+    }
+
+    /**
+     * See OpenLocationCode.recoverNearest.
+     */
+    public static String recoverNearest(ParsedCode shortCode, double referenceLatitude, double referenceLongitude) {
+        return INSTANCE.recoverNearest(shortCode, referenceLatitude, referenceLongitude);
+    }
+
+    /**
+     * See OpenLocationCode.recoverNearestBatch.
+     */
+    public static void recoverNearestBatch(String[] shortCodes, double referenceLatitude, double referenceLongitude,
+                                           String[] out) {
+        INSTANCE.recoverNearestBatch(shortCodes, referenceLatitude, referenceLongitude, out);
+    }
+
+    /**
+     * See OpenLocationCode.shorten.
+     */
+    public static String shorten(String code, double latitude, double longitude) {
+        return INSTANCE.shorten(code, latitude, longitude);
+    }
+
+    /**
+     * See OpenLocationCode.shorten.
+     */
+    public static String shorten(ParsedCode code, double latitude, double longitude) {
+        return INSTANCE.shorten(code, latitude, longitude);
+    }
+
+    /**
+     * See OpenLocationCode.shortenBatch.
+     */
+    public static void shortenBatch(String[] codes, double latitude, double longitude, String[] out) {
+        INSTANCE.shortenBatch(codes, latitude, longitude, out);
+    }
+}
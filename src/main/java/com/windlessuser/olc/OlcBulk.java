@@ -0,0 +1,444 @@
+package com.windlessuser.olc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encodes very large batches of locations on several threads.
+ * The batch is cut into chunks small enough for a chunk's locations and codes
+ * to stay in one core's cache. Each thread takes the next chunk that nobody
+ * has started until there are none left, so a slow thread holds up at most
+ * one chunk, and encodes it with its own LaneEncoder. The codes are identical
+ * to OpenLocationCode.encodeBatch and encodeToLong.
+ * <p/>
+ * Files of locations are transcoded the same way, with each chunk of the
+ * input and output files memory mapped by the thread that encodes it.
+ */
+public final class OlcBulk {
+
+    // Number of locations in a chunk. Their coordinates and codes, 24 bytes a
+    // location, fit in a core's L2 cache.
+    static final int CHUNK_SIZE_ = 32 * LaneEncoder.LANE_COUNT_;
+
+    // Number of records in a chunk of a file. Mapping a region has a fixed cost,
+    // so file chunks are much larger than array chunks: 16MB of input each.
+    static final int FILE_CHUNK_SIZE_ = 1 << 20;
+
+    // Bytes in an input record, a latitude and a longitude as doubles.
+    static final int RECORD_BYTES_ = 16;
+
+    // Bytes in an output record, a packed code.
+    static final int CODE_BYTES_ = 8;
+
+    private OlcBulk() {
+    }
+
+    /**
+     * Encode columns of locations into packed codes using one thread for each
+     * available processor: the calling thread, and threads from a pool shared
+     * by all calls. The pool's threads are daemon threads, so they don't keep
+     * the JVM alive.
+     *
+     * @param latitudes:  Latitudes in signed decimal degrees.
+     * @param longitudes: Longitudes in signed decimal degrees, one for each latitude.
+     * @param codeLength: The number of significant digits in each code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @param out:        Receives the packed code of each location, at the same
+     *                    index. It must be at least as long as latitudes.
+     */
+    public static void encodeParallel(double[] latitudes, double[] longitudes, int codeLength, long[] out) {
+        encodeParallel(latitudes, longitudes, codeLength, out, SharedExecutor.EXECUTOR, SharedExecutor.THREADS);
+    }
+
+    /**
+     * Encode columns of locations into packed codes on a caller supplied
+     * executor.
+     *
+     * @param latitudes:  Latitudes in signed decimal degrees.
+     * @param longitudes: Longitudes in signed decimal degrees, one for each latitude.
+     * @param codeLength: The number of significant digits in each code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @param out:        Receives the packed code of each location, at the same
+     *                    index. It must be at least as long as latitudes.
+     * @param executor:   Runs the encoding tasks. The calling thread encodes
+     *                    too, so this may be called from the executor's own
+     *                    threads.
+     * @param threads:    The number of threads to encode on at once, counting
+     *                    the calling thread, normally one more than the number
+     *                    of threads the executor has free.
+     */
+    public static void encodeParallel(final double[] latitudes, final double[] longitudes, int codeLength,
+                                      final long[] out, ExecutorService executor, int threads) {
+        final int length = OpenLocationCode.normalizePackedLength(codeLength);
+        int count = OpenLocationCode.checkBatch(latitudes, longitudes, out.length);
+        forEachChunk(count, CHUNK_SIZE_, executor, threads, new ChunkWorkerFactory() {
+            public ChunkWorker newWorker() {
+                final LaneEncoder encoder = new LaneEncoder(length);
+                return new ChunkWorker() {
+                    public void process(long from, long to) {
+                        encoder.encode(latitudes, longitudes, (int) from, (int) to, out);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Transcode a file of locations into a file of packed codes, using one
+     * thread for each available processor. See the full form for the formats.
+     *
+     * @param input:      The file of locations.
+     * @param output:     The file to write the codes to. It is created or replaced.
+     * @param codeLength: The number of significant digits in each code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @return The number of codes written.
+     * @throws IOException              if either file can't be read, written or
+     *                                  mapped.
+     * @throws IllegalArgumentException if the file is not a whole number of
+     *                                  records, or a record holds a NaN or
+     *                                  infinite coordinate. The message gives
+     *                                  the record's index, from zero.
+     */
+    public static long transcode(File input, File output, int codeLength) throws IOException {
+        return transcode(input, output, codeLength, ByteOrder.BIG_ENDIAN,
+                SharedExecutor.EXECUTOR, SharedExecutor.THREADS);
+    }
+
+    /**
+     * Transcode a file of locations into a file of packed codes.
+     * The input is a flat sequence of records, each a latitude followed by a
+     * longitude as 8 byte IEEE doubles. The output has one 8 byte packed code
+     * for each record, in the same order, so the code of record i is at byte
+     * 8 * i. Both files use the same byte order; big endian is what
+     * DataOutputStream writes.
+     * The files are processed in chunks of FILE_CHUNK_SIZE_ records. A thread
+     * maps the input and output regions of a chunk, copies the locations into
+     * its own arrays a few thousand at a time, encodes them with a LaneEncoder
+     * and copies the codes out, so there are no objects per record. The output
+     * is left for the operating system to write back, not forced to the
+     * storage device; callers that need it there should force the file
+     * themselves. If a chunk fails, the chunks already running are finished
+     * before the files are closed and the first failure is thrown.
+     *
+     * @param input:      The file of locations.
+     * @param output:     The file to write the codes to. It is created or replaced.
+     * @param codeLength: The number of significant digits in each code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @param order:      The byte order of both files.
+     * @param executor:   Runs the encoding tasks. The calling thread encodes
+     *                    too, so this may be called from the executor's own
+     *                    threads.
+     * @param threads:    The number of threads to encode on at once, counting
+     *                    the calling thread.
+     * @return The number of codes written.
+     * @throws IOException              if either file can't be read, written or
+     *                                  mapped.
+     * @throws IllegalArgumentException if the file is not a whole number of
+     *                                  records, or a record holds a NaN or
+     *                                  infinite coordinate. The message gives
+     *                                  the record's index, from zero.
+     */
+    public static long transcode(File input, File output, int codeLength, final ByteOrder order,
+                                 ExecutorService executor, int threads) throws IOException {
+        final int length = OpenLocationCode.normalizePackedLength(codeLength);
+        RandomAccessFile in = new RandomAccessFile(input, "r");
+        try {
+            RandomAccessFile out = new RandomAccessFile(output, "rw");
+            try {
+                final FileChannel inChannel = in.getChannel();
+                final FileChannel outChannel = out.getChannel();
+                long size = inChannel.size();
+                if (size % RECORD_BYTES_ != 0) {
+                    throw new IllegalArgumentException("ValueError: " + input + " has " + size +
+                            " bytes, which is not a whole number of " + RECORD_BYTES_ + " byte records");
+                }
+                long count = size / RECORD_BYTES_;
+                out.setLength(count * CODE_BYTES_);
+                try {
+                    forEachChunk(count, FILE_CHUNK_SIZE_, executor, threads, new ChunkWorkerFactory() {
+                        public ChunkWorker newWorker() {
+                            return new FileChunkWorker(inChannel, outChannel, order, new LaneEncoder(length));
+                        }
+                    });
+                } catch (ChunkIOException e) {
+                    throw e.getCause();
+                }
+                return count;
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Encodes chunks of a file of locations, through arrays that are reused
+     * for every chunk.
+     */
+    private static final class FileChunkWorker implements ChunkWorker {
+
+        private final FileChannel input;
+        private final FileChannel output;
+        private final ByteOrder order;
+        private final LaneEncoder encoder;
+        private final double[] records = new double[2 * CHUNK_SIZE_];
+        private final double[] latitudes = new double[CHUNK_SIZE_];
+        private final double[] longitudes = new double[CHUNK_SIZE_];
+        private final long[] codes = new long[CHUNK_SIZE_];
+
+        FileChunkWorker(FileChannel input, FileChannel output, ByteOrder order, LaneEncoder encoder) {
+            this.input = input;
+            this.output = output;
+            this.order = order;
+            this.encoder = encoder;
+        }
+
+        public void process(long from, long to) {
+            try {
+                DoubleBuffer source = input.map(FileChannel.MapMode.READ_ONLY,
+                        from * RECORD_BYTES_, (to - from) * RECORD_BYTES_).order(order).asDoubleBuffer();
+                LongBuffer targetCodes = output.map(FileChannel.MapMode.READ_WRITE,
+                        from * CODE_BYTES_, (to - from) * CODE_BYTES_).order(order).asLongBuffer();
+                long record = from;
+                while (source.hasRemaining()) {
+                    int count = Math.min(CHUNK_SIZE_, source.remaining() / 2);
+                    source.get(records, 0, 2 * count);
+                    for (int i = 0; i < count; i++) {
+                        latitudes[i] = records[2 * i];
+                        longitudes[i] = records[2 * i + 1];
+                        checkFinite(latitudes[i], longitudes[i], record + i);
+                    }
+                    encoder.encode(latitudes, longitudes, 0, count, codes);
+                    targetCodes.put(codes, 0, count);
+                    record += count;
+                }
+            } catch (IOException e) {
+                throw new ChunkIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reject a record that is not a location, a NaN or infinite coordinate,
+     * rather than write a meaningless code for it.
+     */
+    private static void checkFinite(double latitude, double longitude, long record) {
+        if (Double.isNaN(latitude) || Double.isInfinite(latitude) ||
+                Double.isNaN(longitude) || Double.isInfinite(longitude)) {
+            throw new IllegalArgumentException("ValueError: Record " + record + " is not a location: " +
+                    latitude + ", " + longitude);
+        }
+    }
+
+    /**
+     * Carries an IOException out of a worker, which can't throw it directly.
+     */
+    private static final class ChunkIOException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ChunkIOException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Processes chunks of a batch. Each thread gets its own worker, so a worker
+     * can keep buffers between chunks.
+     */
+    interface ChunkWorker {
+
+        /**
+         * @param from: The index of the first item of the chunk.
+         * @param to:   The index after the last item of the chunk.
+         */
+        void process(long from, long to);
+    }
+
+    interface ChunkWorkerFactory {
+        ChunkWorker newWorker();
+    }
+
+    /**
+     * Process a batch in chunks, on up to the given number of threads. The
+     * calling thread is one of them: it submits the others to the executor and
+     * then takes chunks alongside them, so the batch finishes even if the
+     * executor never runs the submitted workers, for instance when this is
+     * called from one of the executor's own threads. Workers that haven't
+     * started by the time the chunks run out are cancelled, and the rest are
+     * waited for. Returns when every chunk has been processed. If a chunk fails, or the calling thread is
+     * interrupted, no new chunks are started, and this waits for the chunks
+     * already running before it throws.
+     *
+     * @param count:     The number of items in the batch.
+     * @param chunkSize: The number of items in each chunk but the last.
+     * @param executor:  Runs the workers other than the calling thread.
+     * @param threads:   The largest number of workers to run at once, counting
+     *                   the calling thread.
+     * @param workers:   Creates a worker for each thread.
+     * @throws IllegalStateException if the calling thread is interrupted while
+     *                               waiting. Its interrupt status is kept.
+     */
+    static void forEachChunk(final long count, final int chunkSize, ExecutorService executor, int threads,
+                             final ChunkWorkerFactory workers) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("ValueError: Invalid thread count: " + threads);
+        }
+        long chunks = (count + chunkSize - 1) / chunkSize;
+        if (chunks <= 1) {
+            if (count > 0) {
+                workers.newWorker().process(0, count);
+            }
+            return;
+        }
+        final AtomicLong next = new AtomicLong();
+        List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+        for (int i = 1; i < Math.min(threads, chunks); i++) {
+            ChunkTask task = new ChunkTask(workers, next, count, chunkSize);
+            task.future = executor.submit(task);
+            tasks.add(task);
+        }
+        Throwable failure = null;
+        try {
+            processChunks(workers.newWorker(), next, count, chunkSize);
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+        }
+        // Wait for every worker that has started, even after one has failed or
+        // this thread has been interrupted, so no chunk is still being written
+        // on return. Workers still queued have nothing left to do, and may be
+        // queued behind this thread, so they are claimed here and cancelled
+        // rather than waited for.
+        boolean interrupted = false;
+        for (ChunkTask task : tasks) {
+            if (task.claim()) {
+                task.future.cancel(false);
+                continue;
+            }
+            while (true) {
+                try {
+                    task.future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workers");
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * A worker submitted to the executor. Whichever of the worker and the
+     * calling thread claims it first decides whether it runs: a worker that
+     * claims it processes chunks and is waited for, one that finds it already
+     * claimed returns without doing anything.
+     */
+    private static final class ChunkTask implements Callable<Object> {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final ChunkWorkerFactory workers;
+        private final AtomicLong next;
+        private final long count;
+        private final int chunkSize;
+        Future<Object> future;
+
+        ChunkTask(ChunkWorkerFactory workers, AtomicLong next, long count, int chunkSize) {
+            this.workers = workers;
+            this.next = next;
+            this.count = count;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @return True if nobody had claimed the task before.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        public Object call() {
+            if (claim()) {
+                processChunks(workers.newWorker(), next, count, chunkSize);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Process the next chunk that nobody has started until there are none left.
+     * If a chunk fails, the other workers are stopped from starting new ones.
+     */
+    private static void processChunks(ChunkWorker worker, AtomicLong next, long count, int chunkSize) {
+        long from;
+        while ((from = next.getAndAdd(chunkSize)) < count) {
+            try {
+                worker.process(from, Math.min(from + chunkSize, count));
+            } catch (RuntimeException e) {
+                next.set(count);
+                throw e;
+            } catch (Error e) {
+                next.set(count);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * The threads used when no executor is passed, created on first use.
+     */
+    private static final class SharedExecutor {
+
+        static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+            private final AtomicInteger created = new AtomicInteger();
+
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "olc-bulk-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
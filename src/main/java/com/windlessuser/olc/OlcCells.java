@@ -0,0 +1,592 @@
+package com.windlessuser.olc;
+
+/**
+ * Moves between Open Location Code cells without decoding them to degrees.
+ * The cells of one code length form a grid over the world, and a code names a
+ * row and a column of it. The row is read from the latitude digits, twenty
+ * to a place, and then five to a place from the grid digits; the column from
+ * the longitude digits, twenty to a place, and then four to a place. Moving
+ * to a neighbor adds to the row and column, carrying into the earlier digits,
+ * and turns them back into digits.
+ * <p/>
+ * Columns wrap round the 180th meridian, as normalizeLongitude does, and rows
+ * stop at the poles, as clipLatitude does.
+ */
+public final class OlcCells {
+
+    // The length of a degree of latitude, on a sphere of the Earth's mean
+    // radius. A degree of longitude is this times the cosine of the latitude.
+    static final double METERS_PER_DEGREE_ = 6371008.8 * Math.PI / 180;
+
+    // The most cells a disk may have, so a large radius at a long code
+    // length fails rather than running out of memory.
+    static final int MAX_DISK_CELLS_ = 1 << 22;
+
+    private OlcCells() {
+    }
+
+    /**
+     * Get the cell a number of rows and columns away from a cell.
+     * Moving past a pole stops in the last row, and moving past the 180th
+     * meridian comes back from the other side.
+     *
+     * @param code:           A packed code.
+     * @param latitudeSteps:  The number of cells to move north, or south if
+     *                        negative.
+     * @param longitudeSteps: The number of cells to move east, or west if
+     *                        negative.
+     * @return The packed code of the cell, of the same length.
+     */
+    public static long neighbor(long code, int latitudeSteps, int longitudeSteps) {
+        int codeLength = OlcLong.getCodeLength(code);
+        int gridBits = OlcLong.DIGIT_BITS_ * (codeLength - Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_));
+        long digits = OlcLong.digits(code);
+        long pairs = digits >>> gridBits;
+        long grid = digits & ((1L << gridBits) - 1);
+        long row = clipRow(row(pairs, grid, codeLength) + latitudeSteps, codeLength);
+        long column = wrapColumn(column(pairs, grid, codeLength) + longitudeSteps, codeLength);
+        return OpenLocationCode.packIntegers(
+                row * OlcCover.cellHeight(codeLength), column * OlcCover.cellWidth(codeLength), codeLength);
+    }
+
+    /**
+     * Get the cells around a cell, from the south west a row at a time: south
+     * west, south, south east, west, east, north west, north and north east.
+     * Cells in the first or last row have no neighbors past the pole, so only
+     * five are returned for them.
+     *
+     * @param code: A packed code.
+     * @return The packed codes of the neighboring cells.
+     */
+    public static long[] neighbors(long code) {
+        int codeLength = OlcLong.getCodeLength(code);
+        int gridBits = OlcLong.DIGIT_BITS_ * (codeLength - Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_));
+        long digits = OlcLong.digits(code);
+        long pairs = digits >>> gridBits;
+        long grid = digits & ((1L << gridBits) - 1);
+        long row = row(pairs, grid, codeLength);
+        long column = column(pairs, grid, codeLength);
+        long height = OlcCover.cellHeight(codeLength);
+        long width = OlcCover.cellWidth(codeLength);
+        long[] found = new long[8];
+        int count = 0;
+        for (long r = row - 1; r <= row + 1; r++) {
+            if (r < 0 || r >= rowCount(codeLength)) {
+                continue;
+            }
+            for (long c = column - 1; c <= column + 1; c++) {
+                if (r != row || c != column) {
+                    found[count++] = OpenLocationCode.packIntegers(
+                            r * height, wrapColumn(c, codeLength) * width, codeLength);
+                }
+            }
+        }
+        if (count == found.length) {
+            return found;
+        }
+        long[] trimmed = new long[count];
+        System.arraycopy(found, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Get the cell a number of rows and columns away from a cell, as
+     * neighbor(long, int, int) does for packed codes.
+     *
+     * @param code:           A full code of at most MAX_DIGIT_COUNT_ digits.
+     * @param latitudeSteps:  The number of cells to move north, or south if
+     *                        negative.
+     * @param longitudeSteps: The number of cells to move east, or west if
+     *                        negative.
+     * @return The code of the cell, of the same length, in upper case.
+     * @throws IllegalArgumentException if the code is not a valid full code.
+     */
+    public static String neighbor(String code, int latitudeSteps, int longitudeSteps) {
+        ParsedCode parsed = parseFull(code);
+        int codeLength = parsed.getCodeLength();
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        long pairs = parsed.digitBits(0, pairLength);
+        long grid = parsed.digitBits(pairLength, codeLength);
+        long row = clipRow(row(pairs, grid, codeLength) + latitudeSteps, codeLength);
+        long column = wrapColumn(column(pairs, grid, codeLength) + longitudeSteps, codeLength);
+        return formatCell(row, column, codeLength);
+    }
+
+    /**
+     * Get the cells around a cell, in the order neighbors(long) uses.
+     *
+     * @param code: A full code of at most MAX_DIGIT_COUNT_ digits.
+     * @return The codes of the neighboring cells, in upper case.
+     * @throws IllegalArgumentException if the code is not a valid full code.
+     */
+    public static String[] neighbors(String code) {
+        ParsedCode parsed = parseFull(code);
+        int codeLength = parsed.getCodeLength();
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        long pairs = parsed.digitBits(0, pairLength);
+        long grid = parsed.digitBits(pairLength, codeLength);
+        long row = row(pairs, grid, codeLength);
+        long column = column(pairs, grid, codeLength);
+        String[] found = new String[8];
+        int count = 0;
+        for (long r = row - 1; r <= row + 1; r++) {
+            if (r < 0 || r >= rowCount(codeLength)) {
+                continue;
+            }
+            for (long c = column - 1; c <= column + 1; c++) {
+                if (r != row || c != column) {
+                    found[count++] = formatCell(r, wrapColumn(c, codeLength), codeLength);
+                }
+            }
+        }
+        if (count == found.length) {
+            return found;
+        }
+        String[] trimmed = new String[count];
+        System.arraycopy(found, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Get the cell of a shorter length that holds a cell, by dropping digits.
+     *
+     * @param code:       A packed code.
+     * @param codeLength: The length of the parent, a length codes can have
+     *                    and at most the code's own length.
+     * @return The packed code of the parent.
+     */
+    public static long parent(long code, int codeLength) {
+        int length = OlcLong.getCodeLength(code);
+        checkParentLength(codeLength, length);
+        return OlcLong.pack(OlcLong.digits(code) >>> (OlcLong.DIGIT_BITS_ * (length - codeLength)), codeLength);
+    }
+
+    /**
+     * Get the cells one length longer that make up a cell, in ascending order.
+     * These are the 400 cells of the next pair, or the 20 cells of the next grid
+     * digit after ten digits.
+     *
+     * @param code: A packed code shorter than OlcLong.MAX_DIGIT_COUNT_.
+     * @return The packed codes of the children.
+     */
+    public static long[] children(long code) {
+        int length = OlcLong.getCodeLength(code);
+        if (length >= OlcLong.MAX_DIGIT_COUNT_) {
+            throw new IllegalArgumentException("ValueError: Packed codes of " + length + " digits have no children");
+        }
+        int childLength = OlcCover.nextLength(length);
+        int childBits = OlcLong.DIGIT_BITS_ * (childLength - length);
+        long first = OlcLong.digits(code) << childBits;
+        long[] children = new long[childCount(length)];
+        int count = 0;
+        if (childLength - length == 2) {
+            for (int lat = 0; lat < OpenLocationCode.ENCODING_BASE_; lat++) {
+                for (int lng = 0; lng < OpenLocationCode.ENCODING_BASE_; lng++) {
+                    children[count++] = OlcLong.pack(first | lat << OlcLong.DIGIT_BITS_ | lng, childLength);
+                }
+            }
+        } else {
+            for (int digit = 0; digit < OpenLocationCode.ENCODING_BASE_; digit++) {
+                children[count++] = OlcLong.pack(first | digit, childLength);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Test whether one cell holds another, smaller cell.
+     *
+     * @param ancestor:   A packed code.
+     * @param descendant: A packed code.
+     * @return Whether the descendant is longer than the ancestor and starts with
+     * its digits. A cell is not its own ancestor.
+     */
+    public static boolean isAncestor(long ancestor, long descendant) {
+        int length = OlcLong.getCodeLength(ancestor);
+        int descendantLength = OlcLong.getCodeLength(descendant);
+        return length < descendantLength && OlcLong.digits(descendant) >>> (OlcLong.DIGIT_BITS_ * (descendantLength - length))
+                == OlcLong.digits(ancestor);
+    }
+
+    /**
+     * Get the cell of a shorter length that holds a cell, with the digits that
+     * are dropped replaced by padding, as encode would write it.
+     *
+     * @param code:       A full code of at most MAX_DIGIT_COUNT_ digits.
+     * @param codeLength: The length of the parent, a length codes can have
+     *                    and at most the code's own length.
+     * @return The code of the parent, in upper case.
+     * @throws IllegalArgumentException if the code is not a valid full code.
+     */
+    public static String parent(String code, int codeLength) {
+        ParsedCode parsed = parseFull(code);
+        checkParentLength(codeLength, parsed.getCodeLength());
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        return format(parsed.digitBits(0, pairLength), parsed.digitBits(pairLength, codeLength), codeLength);
+    }
+
+    /**
+     * Get the cells one length longer that make up a cell, in the order
+     * children(long) uses.
+     *
+     * @param code: A full code of fewer than MAX_DIGIT_COUNT_ digits.
+     * @return The codes of the children, in upper case.
+     * @throws IllegalArgumentException if the code is not a valid full code.
+     */
+    public static String[] children(String code) {
+        ParsedCode parsed = parseFull(code);
+        int length = parsed.getCodeLength();
+        if (length >= OpenLocationCode.MAX_DIGIT_COUNT_) {
+            throw new IllegalArgumentException("ValueError: Codes of " + length + " digits have no children");
+        }
+        int childLength = OlcCover.nextLength(length);
+        int pairLength = Math.min(length, OpenLocationCode.PAIR_CODE_LENGTH_);
+        long pairs = parsed.digitBits(0, pairLength);
+        long grid = parsed.digitBits(pairLength, length);
+        String[] children = new String[childCount(length)];
+        int count = 0;
+        if (childLength - length == 2) {
+            for (int lat = 0; lat < OpenLocationCode.ENCODING_BASE_; lat++) {
+                for (int lng = 0; lng < OpenLocationCode.ENCODING_BASE_; lng++) {
+                    children[count++] = format(pairs << 10 | lat << 5 | lng, 0, childLength);
+                }
+            }
+        } else {
+            for (int digit = 0; digit < OpenLocationCode.ENCODING_BASE_; digit++) {
+                children[count++] = format(pairs, grid << 5 | digit, childLength);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Test whether one cell holds another, smaller cell, as
+     * isAncestor(long, long) does for packed codes.
+     *
+     * @param ancestor:   A full code.
+     * @param descendant: A full code.
+     * @throws IllegalArgumentException if either code is not a valid full code.
+     */
+    public static boolean isAncestor(String ancestor, String descendant) {
+        ParsedCode a = parseFull(ancestor);
+        ParsedCode d = parseFull(descendant);
+        int length = a.getCodeLength();
+        if (length >= d.getCodeLength()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (a.getDigit(i) != d.getDigit(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The number of children of a cell of a length.
+     */
+    private static int childCount(int codeLength) {
+        return codeLength < OpenLocationCode.PAIR_CODE_LENGTH_
+                ? OpenLocationCode.ENCODING_BASE_ * OpenLocationCode.ENCODING_BASE_
+                : OpenLocationCode.ENCODING_BASE_;
+    }
+
+    private static void checkParentLength(int codeLength, int length) {
+        if (codeLength < 2 || codeLength > length ||
+                (codeLength < OpenLocationCode.PAIR_CODE_LENGTH_ && codeLength % 2 == 1)) {
+            throw new IllegalArgumentException("ValueError: Invalid parent length " + codeLength +
+                    " for a code of " + length + " digits");
+        }
+    }
+
+    /**
+     * Get the cells exactly k rows or columns away from a cell, that is the
+     * border of the square of 2k + 1 cells a side centered on it. Rings for
+     * k = 0, 1, 2 and so on visit each cell once, working outwards, so a
+     * search can stop as soon as it has found enough. The ring is in the order
+     * neighbors(long) uses, from the south west a row at a time, and leaves out
+     * rows past the poles and columns that the 180th meridian would repeat.
+     *
+     * @param code: A packed code.
+     * @param k:    The distance from the cell in rows or columns. Zero gives
+     *              the cell itself.
+     * @return The packed codes of the cells in the ring.
+     */
+    public static long[] ring(long code, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("ValueError: Invalid ring distance: " + k);
+        }
+        int codeLength = OlcLong.getCodeLength(code);
+        int gridBits = OlcLong.DIGIT_BITS_ * (codeLength - Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_));
+        long digits = OlcLong.digits(code);
+        long pairs = digits >>> gridBits;
+        long grid = digits & ((1L << gridBits) - 1);
+        long row = row(pairs, grid, codeLength);
+        long column = column(pairs, grid, codeLength);
+        long columns = columnCount(codeLength);
+        // Columns further than half way round are nearer the other way.
+        long reach = Math.min(k, columns / 2);
+        long firstRow = Math.max(0, row - k);
+        long lastRow = Math.min(rowCount(codeLength) - 1, row + k);
+        // Half way round is the same column either way, so it is only taken once.
+        boolean halfWay = 2 * reach == columns;
+        long width = 2 * reach + 1 - (halfWay ? 1 : 0);
+        // The side columns are only in the ring when they are k columns away.
+        long sides = reach < k ? 0 : halfWay ? 1 : 2;
+        long edgeRows = (firstRow == row - k ? 1 : 0) + (k > 0 && lastRow == row + k ? 1 : 0);
+        long size = edgeRows * width + (lastRow - firstRow + 1 - edgeRows) * sides;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ValueError: A ring of distance " + k + " has too many cells");
+        }
+        long height = OlcCover.cellHeight(codeLength);
+        long cellWidth = OlcCover.cellWidth(codeLength);
+        long[] found = new long[(int) size];
+        int count = 0;
+        for (long r = firstRow; r <= lastRow; r++) {
+            if (Math.abs(r - row) == k) {
+                for (long dc = halfWay ? 1 - reach : -reach; dc <= reach; dc++) {
+                    found[count++] = OpenLocationCode.packIntegers(r * height,
+                            wrapColumn(column + dc, codeLength) * cellWidth, codeLength);
+                }
+            } else if (sides > 0) {
+                if (!halfWay) {
+                    found[count++] = OpenLocationCode.packIntegers(r * height,
+                            wrapColumn(column - k, codeLength) * cellWidth, codeLength);
+                }
+                found[count++] = OpenLocationCode.packIntegers(r * height,
+                        wrapColumn(column + k, codeLength) * cellWidth, codeLength);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the cells of one length that come within a distance of a location,
+     * nearest first. The distance to a cell is to its nearest point, and the
+     * cell holding the location comes first. Distances are measured on a
+     * plane through that point, with a degree of longitude shortened by the
+     * cosine of the latitude, which is close enough for distances up to a few
+     * hundred kilometers away from the poles.
+     * <p/>
+     * The cells are found a row at a time: each row is only searched over the
+     * columns within the distance at its latitude, so no cell far outside the
+     * disk is looked at.
+     *
+     * @param latitude:     A latitude in signed decimal degrees.
+     * @param longitude:    A longitude in signed decimal degrees.
+     * @param radiusMeters: The distance, in meters.
+     * @param codeLength:   The length of the cells, at most
+     *                      OlcLong.MAX_DIGIT_COUNT_.
+     * @return The packed codes of the cells, nearest first. Cells at the same
+     * distance are from the south west a row at a time.
+     * @throws IllegalArgumentException if the radius is negative, or the disk
+     *                                  has more than MAX_DISK_CELLS_ cells.
+     */
+    public static long[] disk(double latitude, double longitude, double radiusMeters, int codeLength) {
+        if (!(radiusMeters >= 0)) {
+            throw new IllegalArgumentException("ValueError: Invalid radius: " + radiusMeters);
+        }
+        codeLength = OpenLocationCode.normalizePackedLength(codeLength);
+        latitude = OpenLocationCode.clipLatitude(latitude);
+        longitude = OpenLocationCode.normalizeLongitude(longitude);
+        long height = OlcCover.cellHeight(codeLength);
+        long width = OlcCover.cellWidth(codeLength);
+        long columns = columnCount(codeLength);
+        double radius = radiusMeters / METERS_PER_DEGREE_;
+        double y = (latitude + OpenLocationCode.LATITUDE_MAX_) * OpenLocationCode.LAT_INTEGER_MULTIPLIER_;
+        double x = (longitude + OpenLocationCode.LONGITUDE_MAX_) * OpenLocationCode.LNG_INTEGER_MULTIPLIER_;
+        long firstRow = Math.max(0, (long) Math.floor(y / height - radius * OpenLocationCode.LAT_INTEGER_MULTIPLIER_ / height));
+        long lastRow = Math.min(rowCount(codeLength) - 1,
+                (long) Math.floor(y / height + radius * OpenLocationCode.LAT_INTEGER_MULTIPLIER_ / height));
+        long ownRow = OpenLocationCode.latitudeToInteger(latitude) / height;
+        long ownColumn = OpenLocationCode.longitudeToInteger(longitude) / width;
+        long[] cells = new long[64];
+        long[] keys = new long[64];
+        int count = 0;
+        for (long row = firstRow; row <= lastRow; row++) {
+            double nearest = nearestLatitude(latitude, row, height);
+            double dy = latitude - nearest;
+            if (Math.abs(dy) > radius) {
+                continue;
+            }
+            double cos = Math.cos(Math.toRadians(nearest));
+            double reach = Math.sqrt(radius * radius - dy * dy) * OpenLocationCode.LNG_INTEGER_MULTIPLIER_;
+            long firstColumn;
+            long lastColumn;
+            if (reach >= cos * OlcCover.LNG_INTEGER_MAX_ / 2) {
+                firstColumn = 0;
+                lastColumn = columns - 1;
+            } else {
+                firstColumn = (long) Math.floor((x - reach / cos) / width);
+                lastColumn = Math.min(firstColumn + columns - 1, (long) Math.floor((x + reach / cos) / width));
+            }
+            if (count + (lastColumn - firstColumn + 1) > MAX_DISK_CELLS_) {
+                throw new IllegalArgumentException("ValueError: A radius of " + radiusMeters +
+                        " meters covers more than " + MAX_DISK_CELLS_ + " cells of length " + codeLength);
+            }
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                long wrapped = wrapColumn(column, codeLength);
+                double dx = longitudeGap(x, wrapped, width) / OpenLocationCode.LNG_INTEGER_MULTIPLIER_ * cos;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance > radius) {
+                    continue;
+                }
+                if (count == cells.length) {
+                    cells = grow(cells);
+                    keys = grow(keys);
+                }
+                cells[count] = OpenLocationCode.packIntegers(row * height, wrapped * width, codeLength);
+                // The bits of a positive double sort in the same order as it does.
+                // The location's own cell goes first, ahead of any others it is on
+                // the edge of.
+                keys[count++] = row == ownRow && wrapped == ownColumn ? -1 : Double.doubleToLongBits(distance);
+            }
+        }
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        OlcIndex.sort(keys, order, 0, count);
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = cells[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * The latitude in a row nearest to a latitude.
+     */
+    private static double nearestLatitude(double latitude, long row, long height) {
+        double lo = OpenLocationCode.integerToLatitude(row * height);
+        double hi = OpenLocationCode.integerToLatitude((row + 1) * height);
+        return Math.max(lo, Math.min(hi, latitude));
+    }
+
+    /**
+     * The distance east or west from a longitude integer to the nearest point of
+     * a column, the shorter way round.
+     */
+    private static double longitudeGap(double x, long column, long width) {
+        if (x >= column * width && x <= (column + 1) * width) {
+            return 0;
+        }
+        double east = column * width - x;
+        if (east < 0) {
+            east += OlcCover.LNG_INTEGER_MAX_;
+        }
+        double west = x - (column + 1) * width;
+        if (west < 0) {
+            west += OlcCover.LNG_INTEGER_MAX_;
+        }
+        return Math.min(east, west);
+    }
+
+    private static long[] grow(long[] array) {
+        long[] grown = new long[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    /**
+     * Parse a code that must be full and short enough to hold as digits.
+     */
+    static ParsedCode parseFull(String code) {
+        ParsedCode parsed = new ParsedCode(code);
+        if (!parsed.isFull()) {
+            throw new IllegalArgumentException("Passed Open Location Code is not a valid full code: " + code);
+        }
+        if (parsed.getCodeLength() > OpenLocationCode.MAX_DIGIT_COUNT_) {
+            throw new IllegalArgumentException("ValueError: Codes have at most " +
+                    OpenLocationCode.MAX_DIGIT_COUNT_ + " digits: " + code);
+        }
+        return parsed;
+    }
+
+    /**
+     * Get the row of a cell, counting cells of its length from the south pole.
+     *
+     * @param pairs:      The pair digit values, five bits each, with the last digit
+     *                    in the lowest bits.
+     * @param grid:       The grid digit values, in the same form.
+     * @param codeLength: The total number of digits.
+     */
+    static long row(long pairs, long grid, int codeLength) {
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        long row = 0;
+        for (int shift = 5 * (pairLength - 1); shift > 0; shift -= 10) {
+            row = row * OpenLocationCode.ENCODING_BASE_ + (pairs >>> shift & 31);
+        }
+        for (int shift = 5 * (codeLength - pairLength - 1); shift >= 0; shift -= 5) {
+            row = row * OpenLocationCode.GRID_ROWS_ + ((int) (grid >>> shift) & 31) / OpenLocationCode.GRID_COLUMNS_;
+        }
+        return row;
+    }
+
+    /**
+     * Get the column of a cell, counting cells of its length from the 180th
+     * meridian eastwards.
+     *
+     * @param pairs:      The pair digit values, five bits each, with the last digit
+     *                    in the lowest bits.
+     * @param grid:       The grid digit values, in the same form.
+     * @param codeLength: The total number of digits.
+     */
+    static long column(long pairs, long grid, int codeLength) {
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        long column = 0;
+        for (int shift = 5 * (pairLength - 2); shift >= 0; shift -= 10) {
+            column = column * OpenLocationCode.ENCODING_BASE_ + (pairs >>> shift & 31);
+        }
+        for (int shift = 5 * (codeLength - pairLength - 1); shift >= 0; shift -= 5) {
+            column = column * OpenLocationCode.GRID_COLUMNS_ + ((int) (grid >>> shift) & 31) % OpenLocationCode.GRID_COLUMNS_;
+        }
+        return column;
+    }
+
+    /**
+     * The number of rows of cells of a length between the poles.
+     */
+    static long rowCount(int codeLength) {
+        return OlcCover.LAT_INTEGER_MAX_ / OlcCover.cellHeight(codeLength);
+    }
+
+    /**
+     * The number of columns of cells of a length round the world.
+     */
+    static long columnCount(int codeLength) {
+        return OlcCover.LNG_INTEGER_MAX_ / OlcCover.cellWidth(codeLength);
+    }
+
+    private static long clipRow(long row, int codeLength) {
+        return Math.max(0, Math.min(rowCount(codeLength) - 1, row));
+    }
+
+    static long wrapColumn(long column, int codeLength) {
+        long columns = columnCount(codeLength);
+        column %= columns;
+        return column < 0 ? column + columns : column;
+    }
+
+    /**
+     * Format the code of the cell at a row and column.
+     */
+    private static String formatCell(long row, long column, int codeLength) {
+        long latVal = row * OlcCover.cellHeight(codeLength);
+        long lngVal = column * OlcCover.cellWidth(codeLength);
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        return format(OpenLocationCode.encodePairs(latVal, lngVal, pairLength),
+                OpenLocationCode.encodeGrid(latVal, lngVal, codeLength - pairLength), codeLength);
+    }
+
+    /**
+     * Format a code from its digits, with the separator and any padding.
+     */
+    private static String format(long pairs, long grid, int codeLength) {
+        char[] chars = new char[OpenLocationCode.encodedLength(codeLength)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = OpenLocationCode.codeChar(pairs, grid, codeLength, i);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,337 @@
+package com.windlessuser.olc;
+
+import java.util.Arrays;
+
+/**
+ * Covers regions with Open Location Code cells.
+ * A cover is a set of cells, of mixed lengths, whose union contains the
+ * region. Covers are worked out on the integer grid used for encoding (see
+ * OpenLocationCode.latitudeToInteger), so cell edges are exact. The cells are
+ * returned as sorted packed codes, ready for range scans over an index sorted
+ * by packed code, such as OlcIndex.
+ */
+public final class OlcCover {
+
+    // The height and width of a cell of each length, in the integer units of
+    // latitudeToInteger and longitudeToInteger. Only lengths that are used for
+    // codes have a size.
+    private static final long[] LAT_CELL_SIZES_ = new long[OpenLocationCode.MAX_DIGIT_COUNT_ + 1];
+    private static final long[] LNG_CELL_SIZES_ = new long[OpenLocationCode.MAX_DIGIT_COUNT_ + 1];
+
+    // The largest latitude and longitude integers, exclusive.
+    static final long LAT_INTEGER_MAX_ = 2 * OpenLocationCode.LATITUDE_MAX_ * OpenLocationCode.LAT_INTEGER_MULTIPLIER_;
+    static final long LNG_INTEGER_MAX_ = 2 * OpenLocationCode.LONGITUDE_MAX_ * OpenLocationCode.LNG_INTEGER_MULTIPLIER_;
+
+    static {
+        long latSize = OpenLocationCode.LAT_INTEGER_MULTIPLIER_ * 20;
+        long lngSize = OpenLocationCode.LNG_INTEGER_MULTIPLIER_ * 20;
+        for (int length = 2; length <= OpenLocationCode.MAX_DIGIT_COUNT_; length = nextLength(length)) {
+            LAT_CELL_SIZES_[length] = latSize;
+            LNG_CELL_SIZES_[length] = lngSize;
+            if (length < OpenLocationCode.PAIR_CODE_LENGTH_) {
+                latSize /= OpenLocationCode.ENCODING_BASE_;
+                lngSize /= OpenLocationCode.ENCODING_BASE_;
+            } else {
+                latSize /= OpenLocationCode.GRID_ROWS_;
+                lngSize /= OpenLocationCode.GRID_COLUMNS_;
+            }
+        }
+    }
+
+    private OlcCover() {
+    }
+
+    /**
+     * Cover a bounding box with at most maxCells cells.
+     * The box is split into the two character cells it touches, and then cells
+     * are replaced by the children that touch the box, shortest cells first, as
+     * long as the total stays within maxCells. Cells inside the box and cells
+     * of maxCodeLength are never split. A box that touches more than maxCells two
+     * character cells is covered by those cells, since there are no larger ones.
+     * <p/>
+     * The southern and western edges are in the box and the northern and
+     * eastern edges are not, except at 90 and 180 degrees, so boxes that share
+     * an edge don't share cells because of it. If longitudeLo is greater than
+     * longitudeHi, the box crosses the 180th meridian.
+     *
+     * @param latitudeLo:    The southern edge of the box.
+     * @param longitudeLo:   The western edge of the box.
+     * @param latitudeHi:    The northern edge of the box.
+     * @param longitudeHi:   The eastern edge of the box.
+     * @param maxCells:      The largest number of cells wanted.
+     * @param maxCodeLength: The length of the smallest cells to use, at most
+     *                       OlcLong.MAX_DIGIT_COUNT_.
+     * @return The packed codes of the cells, in ascending order. No cell
+     * contains another.
+     */
+    public static long[] coverBox(double latitudeLo, double longitudeLo, double latitudeHi, double longitudeHi,
+                                  int maxCells, int maxCodeLength) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("ValueError: Invalid cell count: " + maxCells);
+        }
+        maxCodeLength = OpenLocationCode.normalizePackedLength(maxCodeLength);
+        latitudeLo = OpenLocationCode.clipLatitude(latitudeLo);
+        latitudeHi = OpenLocationCode.clipLatitude(latitudeHi);
+        if (latitudeLo > latitudeHi) {
+            throw new IllegalArgumentException("ValueError: The southern edge " + latitudeLo +
+                    " is north of the northern edge " + latitudeHi);
+        }
+        long latLo = OpenLocationCode.latitudeToInteger(latitudeLo);
+        long latHi = latitudeHi >= OpenLocationCode.LATITUDE_MAX_
+                ? LAT_INTEGER_MAX_ : OpenLocationCode.latitudeToInteger(latitudeHi);
+        long[] lngRanges = longitudeRanges(longitudeLo, longitudeHi);
+        return new Coverer(latLo, Math.max(latHi, latLo + 1), lngRanges, maxCells, maxCodeLength).cover();
+    }
+
+    /**
+     * Convert the western and eastern edges of a box to one or two ranges of
+     * longitude integers, splitting boxes that cross the 180th meridian.
+     *
+     * @return The start and end of each range, the end exclusive.
+     */
+    static long[] longitudeRanges(double longitudeLo, double longitudeHi) {
+        longitudeLo = OpenLocationCode.normalizeLongitude(longitudeLo);
+        // An eastern edge of 180 would normalize to -180, so it is kept.
+        if (longitudeHi != OpenLocationCode.LONGITUDE_MAX_) {
+            longitudeHi = OpenLocationCode.normalizeLongitude(longitudeHi);
+        }
+        long lngLo = OpenLocationCode.longitudeToInteger(longitudeLo);
+        long lngHi = longitudeHi == OpenLocationCode.LONGITUDE_MAX_
+                ? LNG_INTEGER_MAX_ : OpenLocationCode.longitudeToInteger(longitudeHi);
+        if (longitudeLo > longitudeHi) {
+            return lngHi == 0
+                    ? new long[]{lngLo, LNG_INTEGER_MAX_}
+                    : new long[]{lngLo, LNG_INTEGER_MAX_, 0, lngHi};
+        }
+        return new long[]{lngLo, Math.max(lngHi, lngLo + 1)};
+    }
+
+    /**
+     * Cover a polygon with cells of one length, split into the cells that are
+     * inside it and the cells its edges pass through. See PolygonCover for how
+     * the cover is worked out and how to look locations up in it.
+     * The polygon's edges join each vertex to the next and the last to the
+     * first. It must not cross the 180th meridian or itself.
+     *
+     * @param latitudes:  The latitude of each vertex, in signed decimal degrees.
+     * @param longitudes: The longitude of each vertex.
+     * @param codeLength: The length of the boundary cells, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     */
+    public static PolygonCover coverPolygon(double[] latitudes, double[] longitudes, int codeLength) {
+        OpenLocationCode.checkBatch(latitudes, longitudes, latitudes.length);
+        if (latitudes.length < 3) {
+            throw new IllegalArgumentException("ValueError: A polygon needs at least 3 vertices, not " +
+                    latitudes.length);
+        }
+        return new PolygonCoverer(latitudes, longitudes,
+                OpenLocationCode.normalizePackedLength(codeLength)).cover();
+    }
+
+    /**
+     * The length of the children of a cell of the given length.
+     */
+    static int nextLength(int codeLength) {
+        return codeLength < OpenLocationCode.PAIR_CODE_LENGTH_ ? codeLength + 2 : codeLength + 1;
+    }
+
+    /**
+     * The height of a cell in latitude integers.
+     *
+     * @param codeLength: The length of the cell's code.
+     */
+    static long cellHeight(int codeLength) {
+        return LAT_CELL_SIZES_[codeLength];
+    }
+
+    /**
+     * The width of a cell in longitude integers.
+     *
+     * @param codeLength: The length of the cell's code.
+     */
+    static long cellWidth(int codeLength) {
+        return LNG_CELL_SIZES_[codeLength];
+    }
+
+    /**
+     * The state of one cover. Cells are held as the integers of their
+     * south-west corners, one level at a time.
+     */
+    private static final class Coverer {
+
+        private final long latLo;
+        private final long latHi;
+        private final long[] lngRanges;
+        private final int maxCells;
+        private final int maxCodeLength;
+        private long[] result = new long[16];
+        private int resultCount;
+        private long[] cellLats = new long[16];
+        private long[] cellLngs = new long[16];
+        private int cellCount;
+        private long[] nextLats = new long[16];
+        private long[] nextLngs = new long[16];
+        private int nextCount;
+        // The spans of child columns found by childColumns.
+        private final long[] columnSpans = new long[4];
+
+        Coverer(long latLo, long latHi, long[] lngRanges, int maxCells, int maxCodeLength) {
+            this.latLo = latLo;
+            this.latHi = latHi;
+            this.lngRanges = lngRanges;
+            this.maxCells = maxCells;
+            this.maxCodeLength = maxCodeLength;
+        }
+
+        long[] cover() {
+            int length = 2;
+            long latSize = LAT_CELL_SIZES_[length];
+            long lngSize = LNG_CELL_SIZES_[length];
+            // The two character cells are the children of the whole world.
+            addChildren(0, 0, LAT_INTEGER_MAX_, LNG_INTEGER_MAX_, latSize, lngSize);
+            swap();
+            while (cellCount > 0) {
+                int childLength = nextLength(length);
+                long childLatSize = length < maxCodeLength ? LAT_CELL_SIZES_[childLength] : 0;
+                long childLngSize = length < maxCodeLength ? LNG_CELL_SIZES_[childLength] : 0;
+                for (int i = 0; i < cellCount; i++) {
+                    long lat = cellLats[i];
+                    long lng = cellLngs[i];
+                    if (childLatSize == 0 || inside(lat, lng, latSize, lngSize)) {
+                        addResult(OpenLocationCode.packIntegers(lat, lng, length));
+                        continue;
+                    }
+                    long children = countChildren(lat, lng, latSize, lngSize, childLatSize, childLngSize);
+                    // The cells after this one will each take at least one place.
+                    if (resultCount + nextCount + children + (cellCount - i - 1) <= maxCells) {
+                        addChildren(lat, lng, latSize, lngSize, childLatSize, childLngSize);
+                    } else {
+                        addResult(OpenLocationCode.packIntegers(lat, lng, length));
+                    }
+                }
+                swap();
+                length = childLength;
+                latSize = childLatSize;
+                lngSize = childLngSize;
+            }
+            long[] cells = new long[resultCount];
+            System.arraycopy(result, 0, cells, 0, resultCount);
+            Arrays.sort(cells);
+            return cells;
+        }
+
+        /**
+         * Make the children found for this level the cells of the next.
+         */
+        private void swap() {
+            long[] lats = cellLats;
+            long[] lngs = cellLngs;
+            cellLats = nextLats;
+            cellLngs = nextLngs;
+            cellCount = nextCount;
+            nextLats = lats;
+            nextLngs = lngs;
+            nextCount = 0;
+        }
+
+        private void addResult(long cell) {
+            if (resultCount == result.length) {
+                result = grow(result);
+            }
+            result[resultCount++] = cell;
+        }
+
+        private void addNext(long lat, long lng) {
+            if (nextCount == nextLats.length) {
+                nextLats = grow(nextLats);
+                nextLngs = grow(nextLngs);
+            }
+            nextLats[nextCount] = lat;
+            nextLngs[nextCount] = lng;
+            nextCount++;
+        }
+
+        private static long[] grow(long[] array) {
+            long[] grown = new long[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+
+        private boolean inside(long lat, long lng, long latSize, long lngSize) {
+            if (lat < latLo || lat + latSize > latHi) {
+                return false;
+            }
+            for (int k = 0; k < lngRanges.length; k += 2) {
+                if (lng >= lngRanges[k] && lng + lngSize <= lngRanges[k + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Work out the columns of the children of a cell that touch the box, as
+         * spans of first and last column. A box that crosses the 180th meridian
+         * has two longitude ranges, and both can reach the same cell, so spans
+         * that meet are merged to keep each child column in only one span.
+         *
+         * @return The number of spans put in columnSpans.
+         */
+        private int childColumns(long lng, long lngSize, long childLngSize) {
+            int count = 0;
+            for (int k = 0; k < lngRanges.length; k += 2) {
+                long lngEnd = Math.min(lng + lngSize, lngRanges[k + 1]);
+                long lngStart = Math.max(lng, lngRanges[k]);
+                if (lngStart >= lngEnd) {
+                    continue;
+                }
+                long first = lngStart / childLngSize;
+                long last = (lngEnd - 1) / childLngSize;
+                if (count > 0 && first <= columnSpans[1] + 1 && columnSpans[0] <= last + 1) {
+                    columnSpans[0] = Math.min(columnSpans[0], first);
+                    columnSpans[1] = Math.max(columnSpans[1], last);
+                } else {
+                    columnSpans[2 * count] = first;
+                    columnSpans[2 * count + 1] = last;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Count the children of a cell that touch the box.
+         */
+        private long countChildren(long lat, long lng, long latSize, long lngSize,
+                                   long childLatSize, long childLngSize) {
+            long latEnd = Math.min(lat + latSize, latHi);
+            long latStart = Math.max(lat, latLo);
+            if (latStart >= latEnd) {
+                return 0;
+            }
+            long rows = (latEnd - 1) / childLatSize - latStart / childLatSize + 1;
+            long columns = 0;
+            int spanCount = childColumns(lng, lngSize, childLngSize);
+            for (int k = 0; k < 2 * spanCount; k += 2) {
+                columns += columnSpans[k + 1] - columnSpans[k] + 1;
+            }
+            return rows * columns;
+        }
+
+        /**
+         * Add the children of a cell that touch the box to the next level.
+         */
+        private void addChildren(long lat, long lng, long latSize, long lngSize,
+                                 long childLatSize, long childLngSize) {
+            long latEnd = Math.min(lat + latSize, latHi);
+            int spanCount = childColumns(lng, lngSize, childLngSize);
+            for (long row = Math.max(lat, latLo) / childLatSize; row * childLatSize < latEnd; row++) {
+                for (int k = 0; k < 2 * spanCount; k += 2) {
+                    for (long column = columnSpans[k]; column <= columnSpans[k + 1]; column++) {
+                        addNext(row * childLatSize, column * childLngSize);
+                    }
+                }
+            }
+        }
+    }
+}
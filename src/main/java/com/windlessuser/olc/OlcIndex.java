@@ -0,0 +1,299 @@
+package com.windlessuser.olc;
+
+import java.util.List;
+
+/**
+ * An in-memory index of values at locations, sorted by packed code.
+ * Every location is encoded at the index's code length and the entries are
+ * kept in primitive arrays in code order. Since every code sorts directly
+ * before the codes that start with it (see OlcLong), the entries in any cell
+ * at the index's length or shorter are one contiguous run, found with two
+ * binary searches. Bounding boxes are answered by scanning the runs of the
+ * cells that cover the box and checking each entry's coordinates.
+ * <p/>
+ * An index can't be changed once it is built, so it can be shared between
+ * threads.
+ *
+ * @param <T> The type of the values.
+ */
+public final class OlcIndex<T> {
+
+    // Most cells scanned for one bounding box. Boxes use the longest pair
+    // length whose cells covering the box number no more than this.
+    static final int MAX_BOX_CELLS_ = 64;
+
+    private final int codeLength;
+    private final long[] codes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Object[] values;
+
+    /**
+     * Build an index. The arrays are copied, so they can be reused afterwards.
+     *
+     * @param latitudes:  The latitude of each value, in signed decimal degrees.
+     * @param longitudes: The longitude of each value.
+     * @param values:     The values, one for each latitude.
+     * @param codeLength: The length of the codes to index by, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_. Cells longer than this can't be
+     *                    searched for directly.
+     */
+    public OlcIndex(double[] latitudes, double[] longitudes, List<? extends T> values, int codeLength) {
+        this.codeLength = OpenLocationCode.normalizePackedLength(codeLength);
+        int count = OpenLocationCode.checkBatch(latitudes, longitudes, Integer.MAX_VALUE);
+        if (values.size() != count) {
+            throw new IllegalArgumentException("There are " + count + " locations but " +
+                    values.size() + " values");
+        }
+        long[] unsorted = new long[count];
+        new LaneEncoder(this.codeLength).encode(latitudes, longitudes, 0, count, unsorted);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        sort(unsorted, order, 0, count);
+        this.codes = new long[count];
+        this.latitudes = new double[count];
+        this.longitudes = new double[count];
+        this.values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            this.codes[i] = unsorted[order[i]];
+            this.latitudes[i] = OpenLocationCode.clipLatitude(latitudes[order[i]]);
+            this.longitudes[i] = OpenLocationCode.normalizeLongitude(longitudes[order[i]]);
+            this.values[i] = values.get(order[i]);
+        }
+    }
+
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Add the values in a cell to a list, in code order.
+     *
+     * @param cell: A full code no longer than the index's code length. It may
+     *              be padded.
+     * @param out:  The list to add the values to.
+     * @return The number of values added.
+     */
+    public int findInCell(String cell, List<? super T> out) {
+        return findInCell(OlcLong.parse(cell), out);
+    }
+
+    /**
+     * Add the values in a cell to a list, in code order.
+     *
+     * @param cell: A packed code no longer than the index's code length.
+     * @param out:  The list to add the values to.
+     * @return The number of values added.
+     */
+    public int findInCell(long cell, List<? super T> out) {
+        int cellLength = OlcLong.getCodeLength(cell);
+        if (cellLength > codeLength) {
+            throw new IllegalArgumentException("ValueError: The cell has " + cellLength +
+                    " digits but the index only has " + codeLength);
+        }
+        long low = OlcLong.digits(cell) << OlcLong.digitShift(cellLength - 1);
+        int from = lowerBound(low);
+        int to = lowerBound(low + (1L << OlcLong.digitShift(cellLength - 1)));
+        for (int i = from; i < to; i++) {
+            out.add(value(i));
+        }
+        return to - from;
+    }
+
+    /**
+     * Add the values in the same cell at the index's code length as a
+     * location to a list.
+     *
+     * @param latitude:  A latitude in signed decimal degrees.
+     * @param longitude: A longitude in signed decimal degrees.
+     * @param out:       The list to add the values to.
+     * @return The number of values added.
+     */
+    public int findAt(double latitude, double longitude, List<? super T> out) {
+        return findInCell(OpenLocationCode.encodePacked(latitude, longitude, codeLength), out);
+    }
+
+    /**
+     * Add the values whose locations are inside a bounding box to a list. The
+     * edges of the box are inside it. If longitudeLo is greater than
+     * longitudeHi, the box crosses the 180th meridian.
+     *
+     * @param latitudeLo:  The southern edge of the box.
+     * @param longitudeLo: The western edge of the box.
+     * @param latitudeHi:  The northern edge of the box.
+     * @param longitudeHi: The eastern edge of the box.
+     * @param out:         The list to add the values to.
+     * @return The number of values added.
+     * @throws IllegalArgumentException if the southern edge is north of the
+     *                                  northern edge, after clipping.
+     */
+    public int findInBox(double latitudeLo, double longitudeLo, double latitudeHi, double longitudeHi,
+                         List<? super T> out) {
+        latitudeLo = OpenLocationCode.clipLatitude(latitudeLo);
+        latitudeHi = OpenLocationCode.clipLatitude(latitudeHi);
+        if (latitudeLo > latitudeHi) {
+            throw new IllegalArgumentException("ValueError: The southern edge " + latitudeLo +
+                    " is north of the northern edge " + latitudeHi);
+        }
+        longitudeLo = OpenLocationCode.normalizeLongitude(longitudeLo);
+        // An eastern edge of 180 would normalize to -180, so it is kept.
+        if (longitudeHi != OpenLocationCode.LONGITUDE_MAX_) {
+            longitudeHi = OpenLocationCode.normalizeLongitude(longitudeHi);
+        }
+        if (longitudeLo > longitudeHi) {
+            return findInBox(latitudeLo, longitudeLo, latitudeHi, OpenLocationCode.LONGITUDE_MAX_, out)
+                    + findInBox(latitudeLo, -OpenLocationCode.LONGITUDE_MAX_, latitudeHi, longitudeHi, out);
+        }
+        long latLo = OpenLocationCode.latitudeToInteger(latitudeLo);
+        long latHi = OpenLocationCode.latitudeToInteger(latitudeHi);
+        long lngLo = OpenLocationCode.longitudeToInteger(longitudeLo);
+        long lngHi = longitudeHi >= OpenLocationCode.LONGITUDE_MAX_
+                ? 2 * OpenLocationCode.LONGITUDE_MAX_ * OpenLocationCode.LNG_INTEGER_MULTIPLIER_ - 1
+                : OpenLocationCode.longitudeToInteger(longitudeHi);
+        // Find the longest pair length with few enough cells over the box.
+        int pairLength = 2;
+        long latCell = OpenLocationCode.GRID_LAT_PRECISION_ * OpenLocationCode.PAIR_PRECISION_ * 20;
+        long lngCell = OpenLocationCode.GRID_LNG_PRECISION_ * OpenLocationCode.PAIR_PRECISION_ * 20;
+        while (pairLength + 2 <= Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_)) {
+            long nextLat = latCell / OpenLocationCode.ENCODING_BASE_;
+            long nextLng = lngCell / OpenLocationCode.ENCODING_BASE_;
+            if ((latHi / nextLat - latLo / nextLat + 1) * (lngHi / nextLng - lngLo / nextLng + 1) > MAX_BOX_CELLS_) {
+                break;
+            }
+            pairLength += 2;
+            latCell = nextLat;
+            lngCell = nextLng;
+        }
+        int found = 0;
+        for (long row = latLo / latCell; row <= latHi / latCell; row++) {
+            for (long column = lngLo / lngCell; column <= lngHi / lngCell; column++) {
+                long low = OpenLocationCode.encodePairs(row * latCell, column * lngCell, pairLength)
+                        << OlcLong.digitShift(pairLength - 1);
+                int from = lowerBound(low);
+                int to = lowerBound(low + (1L << OlcLong.digitShift(pairLength - 1)));
+                for (int i = from; i < to; i++) {
+                    if (latitudes[i] >= latitudeLo && latitudes[i] <= latitudeHi &&
+                            longitudes[i] >= longitudeLo && longitudes[i] <= longitudeHi) {
+                        out.add(value(i));
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the packed code of an entry.
+     *
+     * @param index: The position of the entry in code order.
+     */
+    public long getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Get the latitude of an entry, clipped to the range -90 to 90.
+     */
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    /**
+     * Get the longitude of an entry, normalised to the range -180 to 180.
+     */
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public T getValue(int index) {
+        return value(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * Find the first entry whose code is not less than a key.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = codes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (codes[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sort a range of the entries, given as a permutation of their codes, by
+     * code and then by original position, so the order doesn't depend on the
+     * sort.
+     *
+     * @param codes: The codes, which are not moved.
+     * @param order: The positions of the entries, which are sorted.
+     * @param from:  The first position in order to sort.
+     * @param to:    The position after the last one to sort.
+     */
+    static void sort(long[] codes, int[] order, int from, int to) {
+        while (to - from > 16) {
+            // Quicksort, recursing on the smaller part to bound the stack.
+            int pivot = order[median(codes, order, from, (from + to) >>> 1, to - 1)];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (before(codes, order[i], pivot)) {
+                    i++;
+                }
+                while (before(codes, pivot, order[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (j - from < to - i) {
+                sort(codes, order, from, j + 1);
+                from = i;
+            } else {
+                sort(codes, order, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int entry = order[i];
+            int j = i;
+            while (j > from && before(codes, entry, order[j - 1])) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = entry;
+        }
+    }
+
+    private static boolean before(long[] codes, int a, int b) {
+        return codes[a] < codes[b] || codes[a] == codes[b] && a < b;
+    }
+
+    private static int median(long[] codes, int[] order, int a, int b, int c) {
+        if (before(codes, order[a], order[b])) {
+            return before(codes, order[b], order[c]) ? b : before(codes, order[a], order[c]) ? c : a;
+        }
+        return before(codes, order[a], order[c]) ? a : before(codes, order[b], order[c]) ? c : b;
+    }
+}
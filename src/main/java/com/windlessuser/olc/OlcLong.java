@@ -0,0 +1,134 @@
+package com.windlessuser.olc;
+
+/**
+ * Packed representation of full Open Location Codes.
+ * A packed code holds the digit values of a code in a single long, so codes
+ * can be stored in primitive arrays instead of as Strings. Each digit takes
+ * five bits, starting with the first digit in the highest bits, and the
+ * number of digits is held in the lowest four bits:
+ * <pre>
+ * | digit 0 | digit 1 | ... | digit 11 | length |
+ *   63..59    58..54          8..4       3..0
+ * </pre>
+ * Unused digit positions are zero. The separator and padding characters are
+ * not stored, since their positions follow from the length.
+ * <p/>
+ * The first digit of a full code is never more than 8, so valid packed codes
+ * are never negative. Comparing them as longs gives the same order as
+ * comparing the upper case code strings, and every code sorts directly
+ * before the longer codes that start with it.
+ */
+public final class OlcLong {
+
+    // Maximum number of digits in a packed code. 12 digits of 5 bits and a
+    // 4 bit length fill a long; that is two grid digits, or about 0.6 meters.
+    public static final int MAX_DIGIT_COUNT_ = 12;
+
+    // Number of bits used to store each digit.
+    static final int DIGIT_BITS_ = 5;
+
+    // Number of low bits used to store the code length.
+    static final int LENGTH_BITS_ = 4;
+
+    private static final long LENGTH_MASK_ = (1L << LENGTH_BITS_) - 1;
+
+    private static final long DIGIT_MASK_ = (1L << DIGIT_BITS_) - 1;
+
+    private OlcLong() {
+    }
+
+    /**
+     * Get the number of digits in a packed code.
+     *
+     * @param code: A packed code.
+     */
+    public static int getCodeLength(long code) {
+        return (int) (code & LENGTH_MASK_);
+    }
+
+    /**
+     * Get the value of one digit of a packed code. This is the index of the
+     * digit's character in OpenLocationCode.CODE_ALPHABET_.
+     *
+     * @param code:  A packed code.
+     * @param index: The digit position, starting from zero.
+     */
+    public static int getDigit(long code, int index) {
+        return (int) (code >>> digitShift(index)) & (int) DIGIT_MASK_;
+    }
+
+    /**
+     * Convert a packed code to its String form, with the separator and any
+     * padding characters.
+     *
+     * @param code: A packed code.
+     */
+    public static String toString(long code) {
+        int codeLength = getCodeLength(code);
+        int pairLength = Math.min(codeLength, OpenLocationCode.PAIR_CODE_LENGTH_);
+        int gridBits = DIGIT_BITS_ * (codeLength - pairLength);
+        long digits = digits(code);
+        char[] chars = new char[OpenLocationCode.encodedLength(codeLength)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = OpenLocationCode.codeChar(
+                    digits >>> gridBits, digits & ((1L << gridBits) - 1), codeLength, i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Convert a full Open Location Code to its packed form.
+     *
+     * @param code: A valid full code with at most MAX_DIGIT_COUNT_ digits.
+     * @throws IllegalArgumentException if the code is not a valid full code, or
+     *                                  is too long to pack.
+     */
+    public static long parse(String code) {
+        ParsedCode parsed = new ParsedCode(code);
+        if (!parsed.isFull()) {
+            throw new IllegalArgumentException("Passed Open Location Code is not a valid full code: " + code);
+        }
+        int codeLength = parsed.getCodeLength();
+        if (codeLength > MAX_DIGIT_COUNT_) {
+            throw new IllegalArgumentException("Packed codes have at most " +
+                    MAX_DIGIT_COUNT_ + " digits: " + code);
+        }
+        return pack(parsed.digitBits(0, codeLength), codeLength);
+    }
+
+    /**
+     * Compare two packed codes in code order.
+     *
+     * @return A negative number, zero or a positive number as a sorts before,
+     * the same as or after b.
+     */
+    public static int compare(long a, long b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    /**
+     * Pack digit values into a code.
+     *
+     * @param digits:     The digit values, five bits each, with the last digit in
+     *                    the lowest bits.
+     * @param codeLength: The number of digits.
+     */
+    static long pack(long digits, int codeLength) {
+        return digits << digitShift(codeLength - 1) | codeLength;
+    }
+
+    /**
+     * Get the digit values of a packed code, five bits each, with the last digit
+     * in the lowest bits.
+     *
+     * @param code: A packed code.
+     */
+    static long digits(long code) {
+        return code >>> digitShift(getCodeLength(code) - 1);
+    }
+
+    // The bit position of the digit at a position.
+    static int digitShift(int index) {
+        return LENGTH_BITS_ + DIGIT_BITS_ * (MAX_DIGIT_COUNT_ - 1 - index);
+    }
+}
@@ -0,0 +1,235 @@
+package com.windlessuser.olc;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Encodes, decodes or validates a column of a delimited text file, such as a
+ * CSV or TSV file, as it streams from a Reader to a Writer.
+ * Each output line is the input line with the results appended as extra
+ * columns. Lines are read in batches of BATCH_SIZE_, processed and written
+ * before the next batch is read, so memory use doesn't grow with the size of
+ * the file, and the reader is never further ahead of the writer than one
+ * batch. Fields are split on the delimiter only; quoted fields are not
+ * supported. Empty lines are skipped, and are not counted when records are
+ * numbered in error messages.
+ * <p/>
+ * A pipeline holds no state between calls, so one instance can be used by
+ * several threads, each with its own files.
+ */
+public final class OlcPipeline {
+
+    // Number of lines processed together.
+    public static final int BATCH_SIZE_ = 4096;
+
+    // Size of the read and write buffers, in chars.
+    static final int BUFFER_SIZE_ = 1 << 16;
+
+    private final char delimiter;
+    private final boolean header;
+    private final OpenLocationCode olc = Olc.getInstance();
+
+    /**
+     * @param delimiter: The character between fields, such as ',' or '\t'.
+     * @param header:    Whether the first line holds column names. It is copied
+     *                   with the names of the new columns appended.
+     */
+    public OlcPipeline(char delimiter, boolean header) {
+        this.delimiter = delimiter;
+        this.header = header;
+    }
+
+    /**
+     * Append the code of each line's location, in a column named "code".
+     *
+     * @param in:              The lines to read.
+     * @param out:             Where to write the lines with their codes.
+     * @param latitudeColumn:  The index of the latitude field, from zero.
+     * @param longitudeColumn: The index of the longitude field.
+     * @param codeLength:      The number of significant digits in each code.
+     * @return The number of lines encoded, not counting the header.
+     * @throws IllegalArgumentException if a line is missing a field or a field
+     *                                  is not a number.
+     */
+    public long encode(Reader in, Writer out, int latitudeColumn, int longitudeColumn, int codeLength)
+            throws IOException {
+        BufferedReader reader = buffer(in);
+        Writer writer = buffer(out);
+        copyHeader(reader, writer, "code");
+        codeLength = OpenLocationCode.normalizeCodeLength(codeLength);
+        int stride = OpenLocationCode.encodedLength(codeLength);
+        String[] lines = new String[BATCH_SIZE_];
+        char[] codes = new char[BATCH_SIZE_ * stride];
+        long recordNumber = header ? 1 : 0;
+        int count;
+        while ((count = readBatch(reader, lines)) > 0) {
+            for (int i = 0; i < count; i++) {
+                double latitude = parseField(lines[i], latitudeColumn, recordNumber + i + 1);
+                double longitude = parseField(lines[i], longitudeColumn, recordNumber + i + 1);
+                OpenLocationCode.encodeChars(latitude, longitude, codeLength, codes, i * stride);
+            }
+            for (int i = 0; i < count; i++) {
+                writer.write(lines[i]);
+                writer.write(delimiter);
+                writer.write(codes, i * stride, stride);
+                writer.write('\n');
+            }
+            recordNumber += count;
+        }
+        writer.flush();
+        return header ? recordNumber - 1 : recordNumber;
+    }
+
+    /**
+     * Append the center of each line's code, in columns named "latitude" and
+     * "longitude".
+     *
+     * @param in:         The lines to read.
+     * @param out:        Where to write the lines with their centers.
+     * @param codeColumn: The index of the code field, from zero.
+     * @return The number of lines decoded, not counting the header.
+     * @throws IllegalArgumentException if a line is missing the field or its
+     *                                  code is not a valid full code.
+     */
+    public long decode(Reader in, Writer out, int codeColumn) throws IOException {
+        BufferedReader reader = buffer(in);
+        Writer writer = buffer(out);
+        copyHeader(reader, writer, "latitude" + delimiter + "longitude");
+        String[] lines = new String[BATCH_SIZE_];
+        MutableCodeArea area = new MutableCodeArea();
+        long recordNumber = header ? 1 : 0;
+        int count;
+        while ((count = readBatch(reader, lines)) > 0) {
+            for (int i = 0; i < count; i++) {
+                String code = field(lines[i], codeColumn, recordNumber + i + 1);
+                try {
+                    olc.decodeInto(code, area);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("ValueError: Record " + (recordNumber + i + 1) + ": " +
+                            e.getMessage(), e);
+                }
+                writer.write(lines[i]);
+                writer.write(delimiter);
+                writer.write(Double.toString(area.getLatitudeCenter()));
+                writer.write(delimiter);
+                writer.write(Double.toString(area.getLongitudeCenter()));
+                writer.write('\n');
+            }
+            recordNumber += count;
+        }
+        writer.flush();
+        return header ? recordNumber - 1 : recordNumber;
+    }
+
+    /**
+     * Append the kind of each line's code, FULL, SHORT or INVALID, in a column
+     * named "kind".
+     *
+     * @param in:         The lines to read.
+     * @param out:        Where to write the lines with their kinds.
+     * @param codeColumn: The index of the code field, from zero.
+     * @return The number of lines validated, not counting the header.
+     * @throws IllegalArgumentException if a line is missing the field.
+     */
+    public long validate(Reader in, Writer out, int codeColumn) throws IOException {
+        BufferedReader reader = buffer(in);
+        Writer writer = buffer(out);
+        copyHeader(reader, writer, "kind");
+        String[] lines = new String[BATCH_SIZE_];
+        long recordNumber = header ? 1 : 0;
+        int count;
+        while ((count = readBatch(reader, lines)) > 0) {
+            for (int i = 0; i < count; i++) {
+                String code = field(lines[i], codeColumn, recordNumber + i + 1);
+                ParsedCode.Kind kind = OpenLocationCode.kindOf(code);
+                writer.write(lines[i]);
+                writer.write(delimiter);
+                writer.write(kind.name());
+                writer.write('\n');
+            }
+            recordNumber += count;
+        }
+        writer.flush();
+        return header ? recordNumber - 1 : recordNumber;
+    }
+
+    private static BufferedReader buffer(Reader in) {
+        return in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, BUFFER_SIZE_);
+    }
+
+    private static Writer buffer(Writer out) {
+        return out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE_);
+    }
+
+    /**
+     * Copy the header line, if there is one, with the new column names.
+     */
+    private void copyHeader(BufferedReader reader, Writer writer, String names) throws IOException {
+        if (!header) {
+            return;
+        }
+        String line = reader.readLine();
+        if (line != null) {
+            writer.write(line);
+            writer.write(delimiter);
+            writer.write(names);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Read up to lines.length lines, skipping empty ones.
+     *
+     * @return The number of lines read, zero at the end of the input.
+     */
+    private static int readBatch(BufferedReader reader, String[] lines) throws IOException {
+        int count = 0;
+        String line;
+        while (count < lines.length && (line = reader.readLine()) != null) {
+            if (line.length() > 0) {
+                lines[count++] = line;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get one field of a line.
+     *
+     * @param line:       The line.
+     * @param column:     The index of the field, from zero.
+     * @param recordNumber: The number of the record, for errors.
+     */
+    private String field(String line, int column, long recordNumber) {
+        int start = 0;
+        for (int i = 0; i < column; i++) {
+            start = line.indexOf(delimiter, start) + 1;
+            if (start == 0) {
+                throw new IllegalArgumentException("ValueError: Record " + recordNumber +
+                        " has no column " + column + ": " + line);
+            }
+        }
+        int end = line.indexOf(delimiter, start);
+        return line.substring(start, end < 0 ? line.length() : end).trim();
+    }
+
+    private double parseField(String line, int column, long recordNumber) {
+        String field = field(line, column, recordNumber);
+        double value;
+        try {
+            value = Double.parseDouble(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ValueError: Record " + recordNumber + " column " + column +
+                    " is not a number: " + field, e);
+        }
+        // parseDouble accepts "NaN" and "Infinity", which are not locations.
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("ValueError: Record " + recordNumber + " column " + column +
+                    " is not a number: " + field);
+        }
+        return value;
+    }
+}
@@ -1,5 +1,10 @@
 package com.windlessuser.olc;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
 /**
  * // Licensed under the Apache License, Version 2.0 (the 'License');
  * // you may not use this file except in compliance with the License.
@@ -33,6 +38,10 @@ package com.windlessuser.olc;
  * At position 11, the algorithm changes so that each character selects one
  * position from a 4x5 grid. This allows single-character refinements.
  * <p/>
+ * OpenLocationCode has no fields, so one instance can be shared by any number
+ * of threads without synchronization. Olc provides the same methods as static
+ * methods on a shared instance.
+ * <p/>
  *
  * @author Marc Byfield
  * @version 0.1.0
@@ -83,11 +92,64 @@ public class OpenLocationCode {
     // Minimum length of a code that can be shortened.
     public static final int MIN_TRIMMABLE_CODE_LEN_ = 6;
 
+    // Maximum number of digits in a code. Five grid digits already give a
+    // sub-centimetre area, so longer requested lengths are clamped to this.
+    public static final int MAX_DIGIT_COUNT_ = 15;
+
+    // Number of grid refinement digits that can follow the pair digits.
+    static final int GRID_CODE_LENGTH_ = MAX_DIGIT_COUNT_ - PAIR_CODE_LENGTH_;
+
+    // Number of cells per degree at the last pair position (1 / .000125).
+    static final long PAIR_PRECISION_ = 8000;
+
+    // Number of latitude rows below the last pair position (GRID_ROWS_ ^ 5).
+    static final long GRID_LAT_PRECISION_ = 3125;
+
+    // Number of longitude columns below the last pair position (GRID_COLUMNS_ ^ 5).
+    static final long GRID_LNG_PRECISION_ = 1024;
+
+    // Multiply degrees by these to get an integer count of the smallest cells.
+    // All encoding is done on these integers so that no floating point error
+    // accumulates from one digit to the next.
+    static final long LAT_INTEGER_MULTIPLIER_ = PAIR_PRECISION_ * GRID_LAT_PRECISION_;
+    static final long LNG_INTEGER_MULTIPLIER_ = PAIR_PRECISION_ * GRID_LNG_PRECISION_;
+
+    // The separator and padding as chars, and the alphabet indexed by digit value.
+    static final char SEPARATOR_CHAR_ = SEPARATOR_.charAt(0);
+    static final char PADDING_CHAR_ = PADDING_CHARACTER_.charAt(0);
+    static final char[] ALPHABET_CHARS_ = CODE_ALPHABET_.toCharArray();
+
+    // The digit value of each ASCII character, in either case, or -1 if the
+    // character is not in the alphabet.
+    static final byte[] DIGIT_VALUES_ = new byte[128];
+
+    static {
+        java.util.Arrays.fill(DIGIT_VALUES_, (byte) -1);
+        for (int i = 0; i < ENCODING_BASE_; i++) {
+            DIGIT_VALUES_[CODE_ALPHABET_.charAt(i)] = (byte) i;
+            DIGIT_VALUES_[Character.toLowerCase(CODE_ALPHABET_.charAt(i))] = (byte) i;
+        }
+    }
+
 
     public String getAlphabet() {
         return CODE_ALPHABET_;
     }
 
+    /**
+     * Get the value of a code character, which is its index in CODE_ALPHABET_.
+     * This is a single table lookup, and takes either case. It takes an int so
+     * that bytes of ASCII text can be passed directly; negative bytes and
+     * characters outside ASCII are not code characters.
+     *
+     * @param c: A character, or a byte of ASCII text.
+     * @return The digit value from 0 to 19, or -1 if c is not a code character.
+     * The separator and padding characters are not digits.
+     */
+    public static int charToDigit(int c) {
+        return c >= 0 && c < DIGIT_VALUES_.length ? DIGIT_VALUES_[c] : -1;
+    }
+
 
     /**
      * Determines if a code is valid.
@@ -96,61 +158,7 @@ public class OpenLocationCode {
      * position up to the eighth digit.
      */
     public boolean isValid(String code) {
-        if (code == null || code.isEmpty()) {
-            return false;
-        }
-
-        // The separator is required.
-        if (!code.contains(SEPARATOR_)) {
-            return false;
-        }
-        if (code.indexOf(SEPARATOR_) != code.lastIndexOf(SEPARATOR_)) {
-            return false;
-        }
-        // Is it the only character?
-        if (code.length() == 1) {
-            return false;
-        }
-        // Is it in an illegal position?
-        if (code.indexOf(SEPARATOR_) > SEPARATOR_POSITION_ ||
-                code.indexOf(SEPARATOR_) % 2 == 1) {
-            return false;
-        }
-        // We can have an even number of padding characters before the separator,
-        // but then it must be the final character.
-        if (code.contains(PADDING_CHARACTER_)) {
-            // Not allowed to start with them!
-            if (code.indexOf(PADDING_CHARACTER_) == 0) {
-                return false;
-            }
-
-            String[] padMatch = code.split("(" + PADDING_CHARACTER_ + "+)", 'g');
-            if (padMatch.length > 1 || padMatch[0].length() % 2 == 1 ||
-                    padMatch[0].length() > SEPARATOR_POSITION_ - 2) {
-                return false;
-            }
-            // If the code is long enough to end with a separator, make sure it does.
-            if (code.charAt(code.length() - 1) != SEPARATOR_.charAt(0)) {
-                return false;
-            }
-        }
-
-        // If there are characters after the separator, make sure there isn't just
-        // one of them (not legal).
-        if (code.length() - code.indexOf(SEPARATOR_) - 1 == 1) {
-            return false;
-        }
-
-        // Strip the separator and any padding characters.
-        code = code.replaceFirst("\\\\" + SEPARATOR_ + "+", "").replace(PADDING_CHARACTER_ + "+", "");
-        // Check the code contains only valid characters.
-        for (int i = 0, len = code.length(); i < len; i++) {
-            char character = code.toUpperCase().charAt(i);
-            if (character != SEPARATOR_.charAt(0) && CODE_ALPHABET_.indexOf(character) == -1) {
-                return false;
-            }
-        }
-        return true;
+        return scan(code) >= 0;
     }
 
     /**
@@ -160,13 +168,7 @@ public class OpenLocationCode {
      * character.
      */
     public boolean isShort(String code) {
-        // Check it's valid.
-        if (!isValid(code)) {
-            return false;
-        }
-        // If there are less characters than expected before the SEPARATOR.
-        return code.contains(SEPARATOR_) &&
-                code.indexOf(SEPARATOR_) < SEPARATOR_POSITION_;
+        return kindOf(code) == ParsedCode.Kind.SHORT;
     }
 
     /**
@@ -178,33 +180,228 @@ public class OpenLocationCode {
      * character is present, it must be after four characters.
      */
     public boolean isFull(String code) {
-        if (!isValid(code)) {
-            return false;
+        return kindOf(code) == ParsedCode.Kind.FULL;
+    }
+
+    /**
+     * Work out whether a code is full, short or invalid, without allocating.
+     *
+     * @param code: The code to check.
+     */
+    static ParsedCode.Kind kindOf(CharSequence code) {
+        return kindOf(code, scan(code));
+    }
+
+    /**
+     * Work out whether a code is full, short or invalid, once it has been
+     * scanned.
+     *
+     * @param code:      The code to check.
+     * @param separator: The position of the separator, as returned by scan.
+     */
+    static ParsedCode.Kind kindOf(CharSequence code, int separator) {
+        if (separator < 0) {
+            return ParsedCode.Kind.INVALID;
         }
-        // If it's short, it's not full.
-        if (isShort(code)) {
-            return false;
+        // If there are less characters than expected before the SEPARATOR.
+        if (separator < SEPARATOR_POSITION_) {
+            return ParsedCode.Kind.SHORT;
         }
+        if (isFullRange(charToDigit(code.charAt(0)), charToDigit(code.charAt(1)))) {
+            return ParsedCode.Kind.FULL;
+        }
+        return ParsedCode.Kind.INVALID;
+    }
+
+    /**
+     * Validates a code once, recording its kind, separator and padding positions
+     * and digit values. The result can be passed to decode, shorten and
+     * recoverNearest to avoid validating the same code again.
+     *
+     * @param code: The code to parse.
+     * @return The parsed code. Invalid codes give a ParsedCode of kind INVALID.
+     */
+    public ParsedCode parse(String code) {
+        return new ParsedCode(code);
+    }
 
+    /**
+     * Checks that the first two digits of a full code give a legal latitude and
+     * longitude.
+     *
+     * @param firstLatDigit: The value of the first digit of the code.
+     * @param firstLngDigit: The value of the second digit of the code.
+     */
+    static boolean isFullRange(int firstLatDigit, int firstLngDigit) {
         // Work out what the first latitude character indicates for latitude.
-        int firstLatValue = CODE_ALPHABET_.indexOf(
-                code.toUpperCase().charAt(0)) * ENCODING_BASE_;
-        if (firstLatValue >= LATITUDE_MAX_ * 2) {
+        if (firstLatDigit * ENCODING_BASE_ >= LATITUDE_MAX_ * 2) {
             // The code would decode to a latitude of >= 90 degrees.
             return false;
         }
-        if (code.length() > 1) {
-            // Work out what the first longitude character indicates for longitude.
-            int firstLngValue = CODE_ALPHABET_.indexOf(
-                    code.toUpperCase().charAt(1)) * ENCODING_BASE_;
-            if (firstLngValue >= LONGITUDE_MAX_ * 2) {
-                // The code would decode to a longitude of >= 180 degrees.
-                return false;
-            }
+        // Work out what the first longitude character indicates for longitude.
+        if (firstLngDigit * ENCODING_BASE_ >= LONGITUDE_MAX_ * 2) {
+            // The code would decode to a longitude of >= 180 degrees.
+            return false;
         }
         return true;
     }
 
+    /**
+     * Check the format of a code in a single pass over its characters.
+     * This checks the alphabet, the position of the separator and the padding
+     * rules together, using charToDigit to classify each character, and
+     * doesn't allocate.
+     *
+     * @param code: The code to check.
+     * @return The position of the separator, or -1 if the code is not valid.
+     */
+    static int scan(CharSequence code) {
+        return scan(code, null);
+    }
+
+    /**
+     * Check the format of a code, recording the digit values as they are seen.
+     *
+     * @param code:   The code to check.
+     * @param digits: If not null, receives the value of each digit in order. It
+     *                must be at least as long as the code.
+     * @return The position of the separator, or -1 if the code is not valid.
+     */
+    static int scan(CharSequence code, byte[] digits) {
+        if (code == null) {
+            return -1;
+        }
+        return scan(code, 0, code.length(), digits);
+    }
+
+    /**
+     * Check the format of a code held in a CharSequence, or as ASCII bytes in a
+     * byte[] or ByteBuffer, reading it through charAt(Object, int).
+     *
+     * @param src:    The text holding the code.
+     * @param off:    The index of the code's first character.
+     * @param len:    The number of characters in the code.
+     * @param digits: If not null, receives the value of each digit in order. It
+     *                must be at least len long.
+     * @return The position of the separator, or -1 if the code is not valid.
+     */
+    static int scan(Object src, int off, int len, byte[] digits) {
+        int separator = -1;
+        int padding = -1;
+        int digitCount = 0;
+        for (int i = 0; i < len; i++) {
+            int c = charAt(src, off + i);
+            if (c == SEPARATOR_CHAR_) {
+                // There must be only one, in an even position up to the eighth.
+                if (separator >= 0 || i > SEPARATOR_POSITION_ || i % 2 == 1) {
+                    return -1;
+                }
+                separator = i;
+            } else if (c == PADDING_CHAR_) {
+                // Padding can't start the code, and starts in an even position.
+                if (separator >= 0 || (padding < 0 && (i == 0 || i % 2 == 1))) {
+                    return -1;
+                }
+                if (padding < 0) {
+                    padding = i;
+                }
+            } else {
+                int digit = charToDigit(c);
+                // Not in the alphabet, or a digit following padding.
+                if (digit < 0 || padding >= 0) {
+                    return -1;
+                }
+                if (digits != null) {
+                    digits[digitCount++] = (byte) digit;
+                }
+            }
+        }
+        // The separator is required, and can't be the only character.
+        if (separator < 0 || len == 1) {
+            return -1;
+        }
+        // Padding runs up to the separator of a full code, which must then be
+        // the final character.
+        if (padding >= 0 && (separator != SEPARATOR_POSITION_ || len != separator + 1)) {
+            return -1;
+        }
+        // If there are characters after the separator, make sure there isn't just
+        // one of them (not legal).
+        if (len - separator - 1 == 1) {
+            return -1;
+        }
+        return separator;
+    }
+
+    /**
+     * The character at an index of a CharSequence, or the byte at an index of a
+     * byte[] or ByteBuffer holding ASCII text. Buffers are read with absolute
+     * gets, so their position doesn't move. Bytes above 127 come back negative,
+     * which charToDigit rejects.
+     */
+    static int charAt(Object src, int index) {
+        if (src instanceof CharSequence) {
+            return ((CharSequence) src).charAt(index);
+        }
+        if (src instanceof byte[]) {
+            return ((byte[]) src)[index];
+        }
+        return ((ByteBuffer) src).get(index);
+    }
+
+    /**
+     * The code held in src as a String, for exception messages.
+     */
+    private static String text(Object src, int off, int len) {
+        if (src == null || src instanceof CharSequence) {
+            return src == null ? "null" : ((CharSequence) src).subSequence(off, off + len).toString();
+        }
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) (charAt(src, off + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private static void checkAsciiRange(int off, int len, int size) {
+        if (off < 0 || len < 0 || off > size - len) {
+            throw new IndexOutOfBoundsException("No " + len + " bytes at offset " + off + " of " + size);
+        }
+    }
+
+    /**
+     * Decode a code held in a CharSequence, or as ASCII bytes in a byte[] or
+     * ByteBuffer, validating it and reading its digits in one pass each.
+     */
+    private static void decodeChars(Object src, int off, int len, MutableCodeArea out) {
+        if (scan(src, off, len, null) != SEPARATOR_POSITION_ ||
+                !isFullRange(charToDigit(charAt(src, off)), charToDigit(charAt(src, off + 1)))) {
+            // Only a failure builds a String, for the message.
+            throw new IllegalArgumentException("Passed Open Location Code is not a valid full code: " +
+                    text(src, off, len));
+        }
+        long pairs = 0;
+        long grid = 0;
+        int codeLength = 0;
+        // Digits beyond the maximum are below the integer precision.
+        for (int i = 0; i < len && codeLength < MAX_DIGIT_COUNT_; i++) {
+            int c = charAt(src, off + i);
+            if (c == SEPARATOR_CHAR_) {
+                continue;
+            }
+            if (c == PADDING_CHAR_) {
+                break;
+            }
+            if (codeLength < PAIR_CODE_LENGTH_) {
+                pairs = pairs << 5 | charToDigit(c);
+            } else {
+                grid = grid << 5 | charToDigit(c);
+            }
+            codeLength++;
+        }
+        decodeDigits(pairs, grid, codeLength, out);
+    }
+
     /**
      * Encode a location into an Open Location Code.
      * Produces a code of the specified length, or the default length if no length
@@ -212,7 +409,8 @@ public class OpenLocationCode {
      * The length determines the accuracy of the code. The default length is
      * 10 characters, returning a code of approximately 13.5x13.5 meters. Longer
      * codes represent smaller areas, but lengths > 14 are sub-centimetre and so
-     * 11 or 12 are probably the limit of useful codes.
+     * 11 or 12 are probably the limit of useful codes. Lengths above
+     * MAX_DIGIT_COUNT_ are clamped to it.
      *
      * @param latitude:   A latitude in signed decimal degrees. Will be clipped to the
      *                    range -90 to 90.
@@ -223,29 +421,205 @@ public class OpenLocationCode {
      */
     public String encode(double latitude,
                          double longitude, int codeLength) throws IllegalArgumentException {
-        if (codeLength <= 0) {
-            codeLength = PAIR_CODE_LENGTH_;
+        codeLength = normalizeCodeLength(codeLength);
+        char[] code = new char[encodedLength(codeLength)];
+        encodeChars(latitude, longitude, codeLength, code, 0);
+        return new String(code);
+    }
+
+    /**
+     * Encode a location directly into a char array, without allocating.
+     * The code written is the same as the one returned by encode.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the output code, not
+     *                    including any separator characters.
+     * @param dst:        The array to write the code into.
+     * @param off:        The index in dst of the first character to write.
+     * @return The number of characters written.
+     * @throws IndexOutOfBoundsException if dst does not have room for the code.
+     */
+    public int encodeTo(double latitude, double longitude, int codeLength, char[] dst, int off) {
+        codeLength = normalizeCodeLength(codeLength);
+        int length = encodedLength(codeLength);
+        if (off < 0 || off > dst.length - length) {
+            throw new IndexOutOfBoundsException("No room for " + length +
+                    " characters at offset " + off + " of " + dst.length);
         }
-        if (codeLength < 2 ||
-                (codeLength < SEPARATOR_POSITION_ && codeLength % 2 == 1)) {
-            throw new IllegalArgumentException("Invalid Open Location Code length");
+        return encodeChars(latitude, longitude, codeLength, dst, off);
+    }
+
+    /**
+     * Encode a location directly onto the end of an Appendable, such as a
+     * Writer or CharBuffer, without allocating. The code is appended one
+     * character at a time. A CharBuffer is checked first, and nothing is written
+     * if it doesn't have room for the whole code. Any other target that fails
+     * part way, such as a Writer throwing IOException, may be left holding
+     * the start of the code.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the output code, not
+     *                    including any separator characters.
+     * @param out:        Where to append the code.
+     * @return The number of characters appended.
+     * @throws BufferOverflowException if out is a CharBuffer with less room
+     *                                 than the code needs. Nothing is written.
+     * @throws IOException             if out does.
+     */
+    public int encodeTo(double latitude, double longitude, int codeLength, Appendable out)
+            throws IOException {
+        return appendChars(latitude, longitude, normalizeCodeLength(codeLength), out);
+    }
+
+    /**
+     * Encode a location directly onto the end of a StringBuilder. This is
+     * the same as the Appendable form, without the checked exception.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the output code, not
+     *                    including any separator characters.
+     * @param out:        The builder to append the code to.
+     * @return The number of characters appended.
+     */
+    public int encodeTo(double latitude, double longitude, int codeLength, StringBuilder out) {
+        codeLength = normalizeCodeLength(codeLength);
+        int length = encodedLength(codeLength);
+        out.ensureCapacity(out.length() + length);
+        try {
+            return appendChars(latitude, longitude, codeLength, out);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException.
+            throw new IllegalStateException(e);
         }
-        // Ensure that latitude and longitude are valid.
-        latitude = clipLatitude(latitude);
-        longitude = normalizeLongitude(longitude);
-        // Latitude 90 needs to be adjusted to be just less, so the returned code
-        // can also be decoded.
-        if (latitude == 90) {
-            latitude = latitude - computeLatitudePrecision(codeLength);
+    }
+
+    /**
+     * Encode a location directly into a byte array, as ASCII, without
+     * allocating. The bytes written are the characters of the code encode
+     * returns.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the output code, not
+     *                    including any separator characters.
+     * @param dst:        The array to write the code into.
+     * @param off:        The index in dst of the first byte to write.
+     * @return The number of bytes written.
+     * @throws IndexOutOfBoundsException if dst does not have room for the code.
+     */
+    public int encodeTo(double latitude, double longitude, int codeLength, byte[] dst, int off) {
+        codeLength = normalizeCodeLength(codeLength);
+        int length = encodedLength(codeLength);
+        if (off < 0 || off > dst.length - length) {
+            throw new IndexOutOfBoundsException("No room for " + length +
+                    " bytes at offset " + off + " of " + dst.length);
         }
-        String code = encodePairs(
-                latitude, longitude, Math.min(codeLength, PAIR_CODE_LENGTH_));
-        // If the requested length indicates we want grid refined codes.
-        if (codeLength > PAIR_CODE_LENGTH_) {
-            code += encodeGrid(
-                    latitude, longitude, codeLength - PAIR_CODE_LENGTH_);
+        long latVal = latitudeToInteger(latitude);
+        long lngVal = longitudeToInteger(longitude);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long pairs = encodePairs(latVal, lngVal, pairLength);
+        long grid = encodeGrid(latVal, lngVal, codeLength - pairLength);
+        for (int i = 0; i < length; i++) {
+            dst[off + i] = (byte) codeChar(pairs, grid, codeLength, i);
         }
-        return code;
+        return length;
+    }
+
+    /**
+     * Encode a location into a heap or direct ByteBuffer, as ASCII, at its
+     * position, without allocating. The position is moved past the code.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the output code, not
+     *                    including any separator characters.
+     * @param dst:        The buffer to write the code into.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException if dst has less room than the code needs.
+     *                                 Nothing is written.
+     */
+    public int encodeTo(double latitude, double longitude, int codeLength, ByteBuffer dst) {
+        codeLength = normalizeCodeLength(codeLength);
+        int length = encodedLength(codeLength);
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        long latVal = latitudeToInteger(latitude);
+        long lngVal = longitudeToInteger(longitude);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long pairs = encodePairs(latVal, lngVal, pairLength);
+        long grid = encodeGrid(latVal, lngVal, codeLength - pairLength);
+        int position = dst.position();
+        for (int i = 0; i < length; i++) {
+            dst.put(position + i, (byte) codeChar(pairs, grid, codeLength, i));
+        }
+        dst.position(position + length);
+        return length;
+    }
+
+    /**
+     * Encode a location into a packed code. See OlcLong for the format.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: The number of significant digits in the code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @return The packed code.
+     */
+    public long encodeToLong(double latitude, double longitude, int codeLength) {
+        return encodePacked(latitude, longitude, normalizePackedLength(codeLength));
+    }
+
+    /**
+     * Encode columns of locations into packed codes.
+     * The code length is checked once and the locations are then encoded in
+     * blocks, one digit position at a time across the block (see LaneEncoder),
+     * which is much faster than calling encode for each location.
+     *
+     * @param latitudes:  Latitudes in signed decimal degrees.
+     * @param longitudes: Longitudes in signed decimal degrees, one for each latitude.
+     * @param codeLength: The number of significant digits in each code, at most
+     *                    OlcLong.MAX_DIGIT_COUNT_.
+     * @param out:        Receives the packed code of each location, at the same
+     *                    index. It must be at least as long as latitudes.
+     */
+    public void encodeBatch(double[] latitudes, double[] longitudes, int codeLength, long[] out) {
+        codeLength = normalizePackedLength(codeLength);
+        int count = checkBatch(latitudes, longitudes, out.length);
+        new LaneEncoder(codeLength).encode(latitudes, longitudes, 0, count, out);
+    }
+
+    /**
+     * Encode columns of locations into a slab of characters.
+     * Every code has the same length, getEncodedLength(codeLength), so the code
+     * for location i starts at index i * getEncodedLength(codeLength).
+     *
+     * @param latitudes:  Latitudes in signed decimal degrees.
+     * @param longitudes: Longitudes in signed decimal degrees, one for each latitude.
+     * @param codeLength: The number of significant digits in each code.
+     * @param out:        Receives the codes. It must have room for one code for
+     *                    each latitude.
+     */
+    public void encodeBatch(double[] latitudes, double[] longitudes, int codeLength, char[] out) {
+        codeLength = normalizeCodeLength(codeLength);
+        int stride = encodedLength(codeLength);
+        int count = checkBatch(latitudes, longitudes, out.length / stride);
+        for (int i = 0; i < count; i++) {
+            encodeChars(latitudes[i], longitudes[i], codeLength, out, i * stride);
+        }
+    }
+
+    /**
+     * Get the number of characters in an encoded code, including the separator
+     * and any padding characters.
+     *
+     * @param codeLength: The number of significant digits, as passed to encode.
+     */
+    public int getEncodedLength(int codeLength) {
+        return encodedLength(normalizeCodeLength(codeLength));
     }
 
     /**
@@ -258,28 +632,189 @@ public class OpenLocationCode {
      * corners of the area, the center, and the length of the original code.
      */
     public CodeArea decode(String code) {
-        if (!isFull(code)) {
+        MutableCodeArea area = new MutableCodeArea();
+        decodeInto(code, area);
+        return new CodeArea(area);
+    }
+
+    /**
+     * Decodes an Open Location Code into a caller supplied area, without
+     * allocating. The code is validated and its digits read in one pass each,
+     * straight from the characters.
+     *
+     * @param code: The Open Location Code to decode.
+     * @param out:  The area to write the result into.
+     * @throws IllegalArgumentException if the code is not a valid full code.
+     */
+    public void decodeInto(CharSequence code, MutableCodeArea out) {
+        decodeChars(code, 0, code == null ? 0 : code.length(), out);
+    }
+
+    /**
+     * Decodes an Open Location Code held as ASCII bytes into a caller supplied
+     * area, reading the bytes in place without allocating.
+     *
+     * @param src: The array holding the code.
+     * @param off: The index of the code's first byte.
+     * @param len: The number of bytes in the code.
+     * @param out: The area to write the result into.
+     * @throws IllegalArgumentException  if the bytes are not a valid full code.
+     * @throws IndexOutOfBoundsException if the code is not inside the array.
+     */
+    public void decodeInto(byte[] src, int off, int len, MutableCodeArea out) {
+        checkAsciiRange(off, len, src.length);
+        decodeChars(src, off, len, out);
+    }
+
+    /**
+     * Decodes an Open Location Code held as ASCII bytes in a heap or direct
+     * ByteBuffer into a caller supplied area, reading the bytes in place without
+     * allocating. The offset is absolute, as for ByteBuffer.get(int), and the
+     * buffer's position is not changed.
+     *
+     * @param src: The buffer holding the code.
+     * @param off: The index of the code's first byte.
+     * @param len: The number of bytes in the code.
+     * @param out: The area to write the result into.
+     * @throws IllegalArgumentException  if the bytes are not a valid full code.
+     * @throws IndexOutOfBoundsException if the code is not below the buffer's
+     *                                   limit.
+     */
+    public void decodeInto(ByteBuffer src, int off, int len, MutableCodeArea out) {
+        checkAsciiRange(off, len, src.limit());
+        decodeChars(src, off, len, out);
+    }
+
+    /**
+     * Decodes an already parsed Open Location Code into the location coordinates.
+     *
+     * @param code: The parsed Open Location Code to decode.
+     * @return A CodeArea object that provides the latitude and longitude of two of the
+     * corners of the area, the center, and the length of the original code.
+     */
+    public CodeArea decode(ParsedCode code) {
+        if (!code.isFull()) {
             throw new IllegalArgumentException("Passed Open Location Code is not a valid full code: " + code);
         }
-        // Strip out separator character (we've already established the code is
-        // valid so the maximum is one), padding characters and convert to upper
-        // case.
-        code = code.replace(SEPARATOR_, "");
-        code = code.replace(PADDING_CHARACTER_ + "+", "");
-        code = code.toUpperCase();
-        // Decode the lat/lng pair component.
-        CodeArea codeArea = decodePairs(code.substring(0, PAIR_CODE_LENGTH_));
-        // If there is a grid refinement component, decode that.
-        if (code.length() <= PAIR_CODE_LENGTH_) {
-            return codeArea;
+        // Digits beyond the maximum are below the integer precision.
+        int codeLength = Math.min(code.getCodeLength(), MAX_DIGIT_COUNT_);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        return decodeDigits(
+                code.digitBits(0, pairLength), code.digitBits(pairLength, codeLength), codeLength);
+    }
+
+    /**
+     * Decodes a packed code into the location coordinates.
+     *
+     * @param code: A packed code, as returned by encodeToLong or OlcLong.parse.
+     * @return A CodeArea object that provides the latitude and longitude of two of the
+     * corners of the area, the center, and the length of the code.
+     */
+    public CodeArea decodeLong(long code) {
+        MutableCodeArea area = new MutableCodeArea();
+        decodeInto(code, area);
+        return new CodeArea(area);
+    }
+
+    /**
+     * Decodes a packed code into a caller supplied area, without allocating.
+     *
+     * @param code: A packed code, as returned by encodeToLong or OlcLong.parse.
+     * @param out:  The area to write the result into.
+     */
+    public void decodeInto(long code, MutableCodeArea out) {
+        int codeLength = OlcLong.getCodeLength(code);
+        int gridBits = 5 * (codeLength - Math.min(codeLength, PAIR_CODE_LENGTH_));
+        long digits = OlcLong.digits(code);
+        decodeDigits(digits >>> gridBits, digits & ((1L << gridBits) - 1), codeLength, out);
+    }
+
+    /**
+     * Decode a column of codes into columns of area bounds.
+     * One reusable area is used for the whole batch, so no CodeArea objects are
+     * created.
+     *
+     * @param codes:       Valid full codes.
+     * @param latitudeLo:  Receives the latitude of the low corner of each code.
+     * @param longitudeLo: Receives the longitude of the low corner of each code.
+     * @param latitudeHi:  Receives the latitude of the high corner of each code.
+     * @param longitudeHi: Receives the longitude of the high corner of each code.
+     * @throws IllegalArgumentException if a code is not a valid full code, or
+     *                                  an output column is too short.
+     */
+    public void decodeBatch(CharSequence[] codes, double[] latitudeLo, double[] longitudeLo,
+                            double[] latitudeHi, double[] longitudeHi) {
+        checkColumns(codes.length, latitudeLo, longitudeLo);
+        checkColumns(codes.length, latitudeHi, longitudeHi);
+        MutableCodeArea area = new MutableCodeArea();
+        for (int i = 0; i < codes.length; i++) {
+            decodeInto(codes[i], area);
+            latitudeLo[i] = area.getLatitudeLo();
+            longitudeLo[i] = area.getLongitudeLo();
+            latitudeHi[i] = area.getLatitudeHi();
+            longitudeHi[i] = area.getLongitudeHi();
+        }
+    }
+
+    /**
+     * Decode a column of packed codes into columns of area bounds.
+     *
+     * @param codes:       Packed codes, as returned by encodeToLong or encodeBatch.
+     * @param latitudeLo:  Receives the latitude of the low corner of each code.
+     * @param longitudeLo: Receives the longitude of the low corner of each code.
+     * @param latitudeHi:  Receives the latitude of the high corner of each code.
+     * @param longitudeHi: Receives the longitude of the high corner of each code.
+     * @throws IllegalArgumentException if an output column is too short.
+     */
+    public void decodeBatch(long[] codes, double[] latitudeLo, double[] longitudeLo,
+                            double[] latitudeHi, double[] longitudeHi) {
+        checkColumns(codes.length, latitudeLo, longitudeLo);
+        checkColumns(codes.length, latitudeHi, longitudeHi);
+        MutableCodeArea area = new MutableCodeArea();
+        for (int i = 0; i < codes.length; i++) {
+            decodeInto(codes[i], area);
+            latitudeLo[i] = area.getLatitudeLo();
+            longitudeLo[i] = area.getLongitudeLo();
+            latitudeHi[i] = area.getLatitudeHi();
+            longitudeHi[i] = area.getLongitudeHi();
+        }
+    }
+
+    /**
+     * Decode a column of codes into columns of their center coordinates.
+     *
+     * @param codes:      Valid full codes.
+     * @param latitudes:  Receives the latitude of the center of each code.
+     * @param longitudes: Receives the longitude of the center of each code.
+     * @throws IllegalArgumentException if a code is not a valid full code, or
+     *                                  an output column is too short.
+     */
+    public void decodeCenters(CharSequence[] codes, double[] latitudes, double[] longitudes) {
+        checkColumns(codes.length, latitudes, longitudes);
+        MutableCodeArea area = new MutableCodeArea();
+        for (int i = 0; i < codes.length; i++) {
+            decodeInto(codes[i], area);
+            latitudes[i] = area.getLatitudeCenter();
+            longitudes[i] = area.getLongitudeCenter();
+        }
+    }
+
+    /**
+     * Decode a column of packed codes into columns of their center coordinates.
+     *
+     * @param codes:      Packed codes, as returned by encodeToLong or encodeBatch.
+     * @param latitudes:  Receives the latitude of the center of each code.
+     * @param longitudes: Receives the longitude of the center of each code.
+     * @throws IllegalArgumentException if an output column is too short.
+     */
+    public void decodeCenters(long[] codes, double[] latitudes, double[] longitudes) {
+        checkColumns(codes.length, latitudes, longitudes);
+        MutableCodeArea area = new MutableCodeArea();
+        for (int i = 0; i < codes.length; i++) {
+            decodeInto(codes[i], area);
+            latitudes[i] = area.getLatitudeCenter();
+            longitudes[i] = area.getLongitudeCenter();
         }
-        CodeArea gridArea = decodeGrid(code.substring(PAIR_CODE_LENGTH_));
-        return new CodeArea(
-                codeArea.latitudeLo + gridArea.latitudeLo,
-                codeArea.longitudeLo + gridArea.longitudeLo,
-                codeArea.latitudeLo + gridArea.latitudeHi,
-                codeArea.longitudeLo + gridArea.longitudeHi,
-                codeArea.codeLength + gridArea.codeLength);
     }
 
     /**
@@ -313,9 +848,17 @@ public class OpenLocationCode {
      * returned unchanged.
      */
     public String recoverNearest(String shortCode, double referenceLatitude, double referenceLongitude) {
-        if (!isShort(shortCode)) {
-            if (isFull(shortCode)) {
-                return shortCode;
+        return recoverNearest(parse(shortCode), referenceLatitude, referenceLongitude);
+    }
+
+    /**
+     * Recover the nearest matching code to a specified location, from an already
+     * parsed short code. See recoverNearest(String, double, double).
+     */
+    public String recoverNearest(ParsedCode shortCode, double referenceLatitude, double referenceLongitude) {
+        if (!shortCode.isShort()) {
+            if (shortCode.isFull()) {
+                return shortCode.getCode();
             } else {
                 throw new IllegalArgumentException("ValueError: Passed short code is not valid: " + shortCode);
             }
@@ -324,10 +867,8 @@ public class OpenLocationCode {
         referenceLatitude = clipLatitude(referenceLatitude);
         referenceLongitude = normalizeLongitude(referenceLongitude);
 
-        // Clean up the passed code.
-        shortCode = shortCode.toUpperCase();
         // Compute the number of digits we need to recover.
-        int paddingLength = SEPARATOR_POSITION_ - shortCode.indexOf(SEPARATOR_);
+        int paddingLength = SEPARATOR_POSITION_ - shortCode.getSeparatorIndex();
         // The resolution (height and width) of the padded area in degrees.
         double resolution = Math.pow(20, 2 - (paddingLength / 2));
         // Distance from the center to an edge (in degrees).
@@ -340,31 +881,131 @@ public class OpenLocationCode {
                 resolution;
 
         // Use the reference location to pad the supplied short code and decode it.
-        CodeArea codeArea = decode(encode(roundedLatitude, roundedLongitude, 0).substring(0, paddingLength)
-                + shortCode);
+        int codeLength = Math.min(paddingLength + shortCode.getCodeLength(), MAX_DIGIT_COUNT_);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long prefix = encodePairs(
+                latitudeToInteger(roundedLatitude), longitudeToInteger(roundedLongitude), paddingLength);
+        CodeArea codeArea = decodeDigits(
+                prefix << (5 * (pairLength - paddingLength)) |
+                        shortCode.digitBits(0, pairLength - paddingLength),
+                shortCode.digitBits(pairLength - paddingLength, codeLength - paddingLength),
+                codeLength);
         // How many degrees latitude is the code from the reference? If it is more
         // than half the resolution, we need to move it east or west.
-        double degreesDifference = codeArea.latitudeCenter - referenceLatitude;
+        double latitudeCenter = codeArea.latitudeCenter;
+        double degreesDifference = latitudeCenter - referenceLatitude;
         if (degreesDifference > areaToEdge) {
             // If the center of the short code is more than half a cell east,
             // then the best match will be one position west.
-            codeArea.latitudeCenter -= resolution;
+            latitudeCenter -= resolution;
         } else if (degreesDifference < -areaToEdge) {
             // If the center of the short code is more than half a cell west,
             // then the best match will be one position east.
-            codeArea.latitudeCenter += resolution;
+            latitudeCenter += resolution;
         }
 
         // How many degrees longitude is the code from the reference?
-        degreesDifference = codeArea.longitudeCenter - referenceLongitude;
+        double longitudeCenter = codeArea.longitudeCenter;
+        degreesDifference = longitudeCenter - referenceLongitude;
         if (degreesDifference > areaToEdge) {
-            codeArea.longitudeCenter -= resolution;
+            longitudeCenter -= resolution;
         } else if (degreesDifference < -areaToEdge) {
-            codeArea.longitudeCenter += resolution;
+            longitudeCenter += resolution;
         }
 
-        return encode(
-                codeArea.latitudeCenter, codeArea.longitudeCenter, codeArea.codeLength);
+        return encode(latitudeCenter, longitudeCenter, codeArea.codeLength);
+    }
+
+    /**
+     * Recover many short codes against one reference location.
+     * The codes recovered are the same as recoverNearest would give, but the
+     * rounded reference, the resolution and the reference digits are worked
+     * out once for each number of digits to recover, instead of once per code,
+     * and each code is checked, decoded and encoded again without creating
+     * anything but the result.
+     *
+     * @param shortCodes:         Valid short codes, or full codes, which are
+     *                            returned unchanged.
+     * @param referenceLatitude:  The latitude to recover the codes near.
+     * @param referenceLongitude: The longitude to recover the codes near.
+     * @param out:                Receives the code recovered from each short code,
+     *                            at the same index. It must be at least as long as
+     *                            shortCodes.
+     * @throws IllegalArgumentException if a code is neither a valid short code
+     *                                  nor a valid full code. The codes before it
+     *                                  have been recovered.
+     */
+    public void recoverNearestBatch(String[] shortCodes, double referenceLatitude, double referenceLongitude,
+                                    String[] out) {
+        if (out.length < shortCodes.length) {
+            throw new IllegalArgumentException("The output only has room for " + out.length +
+                    " of " + shortCodes.length + " codes");
+        }
+        referenceLatitude = clipLatitude(referenceLatitude);
+        referenceLongitude = normalizeLongitude(referenceLongitude);
+        // The reference is rounded to the resolution of the digits a short code
+        // is missing: two, four, six or eight of them.
+        int levels = SEPARATOR_POSITION_ / 2;
+        double[] resolutions = new double[levels + 1];
+        long[] prefixes = new long[levels + 1];
+        for (int level = 1; level <= levels; level++) {
+            int paddingLength = level * 2;
+            double resolution = Math.pow(20, 2 - (paddingLength / 2));
+            resolutions[level] = resolution;
+            prefixes[level] = encodePairs(
+                    latitudeToInteger(Math.floor(referenceLatitude / resolution) * resolution),
+                    longitudeToInteger(Math.floor(referenceLongitude / resolution) * resolution),
+                    paddingLength);
+        }
+        byte[] digits = new byte[MAX_DIGIT_COUNT_ + 1];
+        char[] chars = new char[encodedLength(MAX_DIGIT_COUNT_)];
+        MutableCodeArea area = new MutableCodeArea();
+        for (int i = 0; i < shortCodes.length; i++) {
+            String shortCode = shortCodes[i];
+            if (shortCode != null && shortCode.length() > digits.length) {
+                digits = new byte[shortCode.length()];
+            }
+            int separator = scan(shortCode, digits);
+            if (separator == SEPARATOR_POSITION_ && isFullRange(digits[0], digits[1])) {
+                out[i] = shortCode;
+                continue;
+            }
+            if (separator < 0 || separator == SEPARATOR_POSITION_) {
+                throw new IllegalArgumentException("ValueError: Passed short code is not valid: " + shortCode);
+            }
+            int paddingLength = SEPARATOR_POSITION_ - separator;
+            double resolution = resolutions[paddingLength / 2];
+            double areaToEdge = resolution / 2.0;
+            // Short codes can't be padded, so every character but the separator
+            // is a digit.
+            int codeLength = Math.min(paddingLength + shortCode.length() - 1, MAX_DIGIT_COUNT_);
+            int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+            long pairs = prefixes[paddingLength / 2];
+            for (int d = 0; d < pairLength - paddingLength; d++) {
+                pairs = pairs << 5 | digits[d];
+            }
+            long grid = 0;
+            for (int d = pairLength - paddingLength; d < codeLength - paddingLength; d++) {
+                grid = grid << 5 | digits[d];
+            }
+            decodeDigits(pairs, grid, codeLength, area);
+            double latitudeCenter = area.getLatitudeCenter();
+            double degreesDifference = latitudeCenter - referenceLatitude;
+            if (degreesDifference > areaToEdge) {
+                latitudeCenter -= resolution;
+            } else if (degreesDifference < -areaToEdge) {
+                latitudeCenter += resolution;
+            }
+            double longitudeCenter = area.getLongitudeCenter();
+            degreesDifference = longitudeCenter - referenceLongitude;
+            if (degreesDifference > areaToEdge) {
+                longitudeCenter -= resolution;
+            } else if (degreesDifference < -areaToEdge) {
+                longitudeCenter += resolution;
+            }
+            int length = encodeChars(latitudeCenter, longitudeCenter, normalizeCodeLength(codeLength), chars, 0);
+            out[i] = new String(chars, 0, length);
+        }
     }
 
 
@@ -391,13 +1032,20 @@ public class OpenLocationCode {
      * or the .
      */
     public String shorten(String code, double latitude, double longitude) {
-        if (!isFull(code)) {
+        return shorten(parse(code), latitude, longitude);
+    }
+
+    /**
+     * Remove characters from the start of an already parsed OLC code. See
+     * shorten(String, double, double).
+     */
+    public String shorten(ParsedCode code, double latitude, double longitude) {
+        if (!code.isFull()) {
             throw new IllegalArgumentException("ValueError: Passed code is not valid and full: " + code);
         }
-        if (code.contains(PADDING_CHARACTER_)) {
+        if (code.isPadded()) {
             throw new IllegalArgumentException("ValueError: Cannot shorten padded codes: " + code);
         }
-        code = code.toUpperCase();
         CodeArea codeArea = decode(code);
         if (codeArea.codeLength < MIN_TRIMMABLE_CODE_LEN_) {
             throw new IllegalArgumentException("ValueError: Code length must be at least " +
@@ -410,38 +1058,130 @@ public class OpenLocationCode {
         double range = Math.max(
                 Math.abs(codeArea.latitudeCenter - latitude),
                 Math.abs(codeArea.longitudeCenter - longitude));
+        String upperCode = code.getCode().toUpperCase();
         for (int i = PAIR_RESOLUTIONS_.length - 2; i >= 1; i--) {
             // Check if we're close enough to shorten. The range must be less than 1/2
             // the resolution to shorten at all, and we want to allow some safety, so
             // use 0.3 instead of 0.5 as a multiplier.
             if (range < (PAIR_RESOLUTIONS_[i] * 0.3)) {
                 // Trim it.
-                return code.substring((i + 1) * 2);
+                return upperCode.substring((i + 1) * 2);
             }
         }
-        return code;
+        return upperCode;
     }
 
     /**
-     * Clip a latitude into the range -90 to 90.
+     * Shorten many codes against one reference location.
+     * The codes returned are the same as shorten would give. The distance each
+     * trim allows is worked out once for the batch, and a code whose first
+     * four digits put it further from the reference than the largest of them
+     * is returned whole without being decoded. Other codes are checked and
+     * decoded without creating anything but the result.
      *
-     * @param latitude: A latitude in signed decimal degrees.
+     * @param codes:     Full, unpadded codes.
+     * @param latitude:  The latitude to shorten the codes against.
+     * @param longitude: The longitude to shorten the codes against.
+     * @param out:       Receives each code, shortened if it can be, at the same
+     *                   index. It must be at least as long as codes.
+     * @throws IllegalArgumentException if a code is not a valid full code or is
+     *                                  padded. The codes before it have been
+     *                                  shortened.
      */
-    private double clipLatitude(double latitude) {
-        return Math.min(90, Math.max(-90, latitude));
+    public void shortenBatch(String[] codes, double latitude, double longitude, String[] out) {
+        if (out.length < codes.length) {
+            throw new IllegalArgumentException("The output only has room for " + out.length +
+                    " of " + codes.length + " codes");
+        }
+        latitude = clipLatitude(latitude);
+        longitude = normalizeLongitude(longitude);
+        // The range within which each pair of digits can be trimmed, as in shorten.
+        double[] ranges = new double[PAIR_RESOLUTIONS_.length - 1];
+        for (int i = 1; i < ranges.length; i++) {
+            ranges[i] = PAIR_RESOLUTIONS_[i] * 0.3;
+        }
+        byte[] digits = new byte[MAX_DIGIT_COUNT_ + 1];
+        MutableCodeArea area = new MutableCodeArea();
+        for (int c = 0; c < codes.length; c++) {
+            String code = codes[c];
+            if (code != null && code.length() > digits.length) {
+                digits = new byte[code.length()];
+            }
+            int separator = scan(code, digits);
+            if (separator != SEPARATOR_POSITION_ || !isFullRange(digits[0], digits[1])) {
+                throw new IllegalArgumentException("ValueError: Passed code is not valid and full: " + code);
+            }
+            if (code.charAt(separator - 1) == PADDING_CHAR_) {
+                throw new IllegalArgumentException("ValueError: Cannot shorten padded codes: " + code);
+            }
+            int codeLength = Math.min(code.length() - 1, MAX_DIGIT_COUNT_);
+            int trim = 0;
+            // The code is somewhere in the one degree cell of its first four
+            // digits, so if the reference is far enough from that cell there is
+            // nothing to trim. A little slack keeps rounding from skipping a
+            // code that shorten would trim.
+            double latitudeGap = gap(latitude + LATITUDE_MAX_, digits[0] * ENCODING_BASE_ + digits[2]);
+            double longitudeGap = gap(longitude + LONGITUDE_MAX_, digits[1] * ENCODING_BASE_ + digits[3]);
+            if (Math.max(latitudeGap, longitudeGap) <= ranges[1] + 1e-9) {
+                int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+                long pairs = 0;
+                for (int d = 0; d < pairLength; d++) {
+                    pairs = pairs << 5 | digits[d];
+                }
+                long grid = 0;
+                for (int d = pairLength; d < codeLength; d++) {
+                    grid = grid << 5 | digits[d];
+                }
+                decodeDigits(pairs, grid, codeLength, area);
+                double range = Math.max(
+                        Math.abs(area.getLatitudeCenter() - latitude),
+                        Math.abs(area.getLongitudeCenter() - longitude));
+                for (int i = ranges.length - 1; i >= 1; i--) {
+                    if (range < ranges[i]) {
+                        trim = (i + 1) * 2;
+                        break;
+                    }
+                }
+            }
+            out[c] = upperCase(code, trim);
+        }
     }
 
     /**
-     * Compute the latitude precision value for a given code length. Lengths <=
-     * 10 have the same precision for latitude and longitude, but lengths > 10
-     * have different precisions due to the grid method having fewer columns than
-     * rows.
+     * The distance from a value to the one degree range starting at a whole
+     * number of degrees, or zero if the value is in it.
      */
-    private double computeLatitudePrecision(int codeLength) {
-        if (codeLength <= 10) {
-            return Math.pow(20, Math.floor(codeLength / -2 + 2));
+    private static double gap(double value, int start) {
+        return value < start ? start - value : Math.max(0, value - start - 1);
+    }
+
+    /**
+     * Get the upper case form of a code from a position, reusing the code if it
+     * is already upper case and whole.
+     */
+    private static String upperCase(String code, int from) {
+        int length = code.length();
+        int i = from;
+        while (i < length && !Character.isLowerCase(code.charAt(i))) {
+            i++;
         }
-        return Math.pow(20, -3) / Math.pow(GRID_ROWS_, codeLength - 10);
+        if (i == length) {
+            return from == 0 ? code : code.substring(from);
+        }
+        char[] chars = new char[length - from];
+        for (i = from; i < length; i++) {
+            chars[i - from] = Character.toUpperCase(code.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Clip a latitude into the range -90 to 90.
+     *
+     * @param latitude: A latitude in signed decimal degrees.
+     */
+    static double clipLatitude(double latitude) {
+        return Math.min(90, Math.max(-90, latitude));
     }
 
     /**
@@ -449,8 +1189,13 @@ public class OpenLocationCode {
      *
      * @param longitude: A longitude in signed decimal degrees.
      */
-
-    private double normalizeLongitude(double longitude) {
+    static double normalizeLongitude(double longitude) {
+        // Far outside the range, take off whole turns in one exact step, so the
+        // loops below run at most once. Subtracting 360 at a time would never
+        // finish for very large values.
+        if (longitude < -540 || longitude >= 540) {
+            longitude = longitude % 360;
+        }
         while (longitude < -180) {
             longitude = longitude + 360;
         }
@@ -461,104 +1206,353 @@ public class OpenLocationCode {
     }
 
     /**
-     * Encode a location into a sequence of OLC lat/lng pairs.
-     * This uses pairs of characters (longitude and latitude in that order) to
-     * represent each step in a 20x20 grid. Each code, therefore, has 1/400th
-     * the area of the previous code.
+     * Check a requested code length and convert it to the number of digits that
+     * will be encoded. Zero or negative lengths give the default length, odd pair
+     * lengths above the separator are rounded up to a whole pair and lengths
+     * above MAX_DIGIT_COUNT_ are clamped.
+     *
+     * @param codeLength: The requested number of significant digits.
+     */
+    static int normalizeCodeLength(int codeLength) {
+        if (codeLength <= 0) {
+            codeLength = PAIR_CODE_LENGTH_;
+        }
+        if (codeLength < 2 ||
+                (codeLength < SEPARATOR_POSITION_ && codeLength % 2 == 1)) {
+            throw new IllegalArgumentException("Invalid Open Location Code length");
+        }
+        if (codeLength < PAIR_CODE_LENGTH_ && codeLength % 2 == 1) {
+            codeLength += 1;
+        }
+        return Math.min(codeLength, MAX_DIGIT_COUNT_);
+    }
+
+    /**
+     * Normalize a code length as normalizeCodeLength does, and check that the
+     * code can be packed.
+     *
+     * @param codeLength: The requested number of significant digits.
+     */
+    static int normalizePackedLength(int codeLength) {
+        codeLength = normalizeCodeLength(codeLength);
+        if (codeLength > OlcLong.MAX_DIGIT_COUNT_) {
+            throw new IllegalArgumentException("Packed codes have at most " +
+                    OlcLong.MAX_DIGIT_COUNT_ + " digits");
+        }
+        return codeLength;
+    }
+
+    /**
+     * Check the columns passed to a batch method.
+     *
+     * @param latitudes:  The latitude column.
+     * @param longitudes: The longitude column.
+     * @param capacity:   The number of results the output has room for.
+     * @return The number of locations.
+     */
+    static int checkBatch(double[] latitudes, double[] longitudes, int capacity) {
+        if (longitudes.length != latitudes.length) {
+            throw new IllegalArgumentException("There are " + latitudes.length +
+                    " latitudes but " + longitudes.length + " longitudes");
+        }
+        if (capacity < latitudes.length) {
+            throw new IllegalArgumentException("The output only has room for " + capacity +
+                    " of " + latitudes.length + " codes");
+        }
+        return latitudes.length;
+    }
+
+    /**
+     * Check that a pair of output columns has room for a batch of results.
+     *
+     * @param count:      The number of results.
+     * @param latitudes:  The latitude column.
+     * @param longitudes: The longitude column.
+     */
+    static void checkColumns(int count, double[] latitudes, double[] longitudes) {
+        if (latitudes.length < count || longitudes.length < count) {
+            throw new IllegalArgumentException("The output columns only have room for " +
+                    Math.min(latitudes.length, longitudes.length) + " of " + count + " results");
+        }
+    }
+
+    /**
+     * The number of characters in an encoded code, including the separator and
+     * any padding characters.
+     *
+     * @param codeLength: A normalized number of significant digits.
+     */
+    static int encodedLength(int codeLength) {
+        return Math.max(codeLength, SEPARATOR_POSITION_) + 1;
+    }
+
+    /**
+     * Convert a latitude into a positive integer count of the smallest grid rows.
+     * The latitude is clipped, and latitude 90 is moved into the highest row so
+     * the returned code can also be decoded.
+     *
+     * @param latitude: A latitude in signed decimal degrees.
+     */
+    static long latitudeToInteger(double latitude) {
+        // Rounding to a millionth of a row absorbs the representation error of
+        // the multiplication, so values on a cell edge stay on that edge.
+        long latVal = (long) (Math.round(
+                (clipLatitude(latitude) + LATITUDE_MAX_) * LAT_INTEGER_MULTIPLIER_ * 1e6) / 1e6);
+        return Math.min(latVal, 2 * LATITUDE_MAX_ * LAT_INTEGER_MULTIPLIER_ - 1);
+    }
+
+    /**
+     * Convert a longitude into a positive integer count of the smallest grid
+     * columns, wrapping 180 back round to -180.
+     *
+     * @param longitude: A longitude in signed decimal degrees.
+     */
+    static long longitudeToInteger(double longitude) {
+        long lngVal = (long) (Math.round(
+                (normalizeLongitude(longitude) + LONGITUDE_MAX_) * LNG_INTEGER_MULTIPLIER_ * 1e6) / 1e6);
+        return lngVal % (2 * LONGITUDE_MAX_ * LNG_INTEGER_MULTIPLIER_);
+    }
+
+    /**
+     * Convert a count of the smallest grid rows back to a latitude in degrees.
+     *
+     * @param latVal: A positive latitude as returned by latitudeToInteger.
+     */
+    static double integerToLatitude(long latVal) {
+        return (double) (latVal - LATITUDE_MAX_ * LAT_INTEGER_MULTIPLIER_) / LAT_INTEGER_MULTIPLIER_;
+    }
+
+    /**
+     * Convert a count of the smallest grid columns back to a longitude in degrees.
+     *
+     * @param lngVal: A positive longitude as returned by longitudeToInteger.
+     */
+    static double integerToLongitude(long lngVal) {
+        return (double) (lngVal - LONGITUDE_MAX_ * LNG_INTEGER_MULTIPLIER_) / LNG_INTEGER_MULTIPLIER_;
+    }
+
+    /**
+     * Write the code for a location into a char array.
+     * This is the common encoding path: the location is converted to integers
+     * once, and the digits are then taken out with integer division.
      *
      * @param latitude:   A latitude in signed decimal degrees.
      * @param longitude:  A longitude in signed decimal degrees.
-     * @param codeLength: The number of significant digits in the output code, not
-     *                    including any separator characters.
+     * @param codeLength: A normalized number of significant digits.
+     * @param dst:        The array to write to. It must have room for
+     *                    encodedLength(codeLength) characters from off.
+     * @param off:        The index of the first character to write.
+     * @return The number of characters written.
      */
-    private String encodePairs(double latitude, double longitude, int codeLength) {
-        StringBuilder code = new StringBuilder();
-        // Adjust latitude and longitude so they fall into positive ranges.
-        double adjustedLatitude = latitude + LATITUDE_MAX_;
-        double adjustedLongitude = longitude + LONGITUDE_MAX_;
-        // Count digits - can't use string length because it may include a separator
-        // character.
-        int digitCount = 0;
-        while (digitCount < codeLength) {
-            // Provides the value of digits in this place in decimal degrees.
-            double placeValue = PAIR_RESOLUTIONS_[((int) Math.floor(digitCount / 2))];
-            // Do the latitude - gets the digit for this place and subtracts that for
-            // the next digit.
-            double digitValue = Math.floor(adjustedLatitude / placeValue);
-            adjustedLatitude -= digitValue * placeValue;
-            code.append(CODE_ALPHABET_.charAt((int) digitValue));
-            digitCount += 1;
-            // And do the longitude - gets the digit for this place and subtracts that
-            // for the next digit.
-            digitValue = Math.floor(adjustedLongitude / placeValue);
-            adjustedLongitude -= digitValue * placeValue;
-            code.append(CODE_ALPHABET_.charAt((int) digitValue));
-            digitCount += 1;
-            // Should we add a separator here?
-            if (digitCount == SEPARATOR_POSITION_ && digitCount < codeLength) {
-                code.append(SEPARATOR_);
-            }
+    static int encodeChars(double latitude, double longitude, int codeLength, char[] dst, int off) {
+        long latVal = latitudeToInteger(latitude);
+        long lngVal = longitudeToInteger(longitude);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long pairs = encodePairs(latVal, lngVal, pairLength);
+        long grid = encodeGrid(latVal, lngVal, codeLength - pairLength);
+        int length = encodedLength(codeLength);
+        for (int i = 0; i < length; i++) {
+            dst[off + i] = codeChar(pairs, grid, codeLength, i);
         }
-        if (code.length() < SEPARATOR_POSITION_) {
-            code.insert(SEPARATOR_POSITION_ - code.length() + 1, PADDING_CHARACTER_);
+        return length;
+    }
+
+    /**
+     * Encode a location into a packed code.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: A number of significant digits, as returned by
+     *                    normalizePackedLength.
+     */
+    static long encodePacked(double latitude, double longitude, int codeLength) {
+        return packIntegers(latitudeToInteger(latitude), longitudeToInteger(longitude), codeLength);
+    }
+
+    /**
+     * Encode a location given as integers into a packed code.
+     *
+     * @param latVal:     The latitude as returned by latitudeToInteger.
+     * @param lngVal:     The longitude as returned by longitudeToInteger.
+     * @param codeLength: A number of significant digits, as returned by
+     *                    normalizePackedLength.
+     */
+    static long packIntegers(long latVal, long lngVal, int codeLength) {
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        int gridLength = codeLength - pairLength;
+        long digits = encodePairs(latVal, lngVal, pairLength) << (5 * gridLength)
+                | encodeGrid(latVal, lngVal, gridLength);
+        return OlcLong.pack(digits, codeLength);
+    }
+
+    /**
+     * Append the code for a location to an Appendable, one character at a time.
+     * A CharBuffer is checked for room first, so it gets all of the code or
+     * none of it.
+     *
+     * @param latitude:   A latitude in signed decimal degrees.
+     * @param longitude:  A longitude in signed decimal degrees.
+     * @param codeLength: A normalized number of significant digits.
+     * @param out:        Where to append the code.
+     * @return The number of characters appended.
+     * @throws BufferOverflowException if out is a CharBuffer without room for
+     *                                 the code. Nothing is written.
+     */
+    static int appendChars(double latitude, double longitude, int codeLength, Appendable out)
+            throws IOException {
+        int length = encodedLength(codeLength);
+        if (out instanceof CharBuffer && ((CharBuffer) out).remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        long latVal = latitudeToInteger(latitude);
+        long lngVal = longitudeToInteger(longitude);
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long pairs = encodePairs(latVal, lngVal, pairLength);
+        long grid = encodeGrid(latVal, lngVal, codeLength - pairLength);
+        for (int i = 0; i < length; i++) {
+            out.append(codeChar(pairs, grid, codeLength, i));
+        }
+        return length;
+    }
+
+    /**
+     * Get one character of an encoded code, inserting the separator and padding.
+     *
+     * @param pairs:      The pair digits as returned by encodePairs.
+     * @param grid:       The grid digits as returned by encodeGrid.
+     * @param codeLength: A normalized number of significant digits.
+     * @param index:      The position of the character in the code.
+     */
+    static char codeChar(long pairs, long grid, int codeLength, int index) {
+        if (index == SEPARATOR_POSITION_) {
+            return SEPARATOR_CHAR_;
+        }
+        int digit = index < SEPARATOR_POSITION_ ? index : index - 1;
+        if (digit >= codeLength) {
+            return PADDING_CHAR_;
+        }
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long digits = digit < pairLength
+                ? pairs >>> (5 * (pairLength - 1 - digit))
+                : grid >>> (5 * (codeLength - 1 - digit));
+        return ALPHABET_CHARS_[(int) digits & 31];
+    }
+
+    /**
+     * Encode a location into a sequence of OLC lat/lng pairs.
+     * This uses pairs of digits (latitude and longitude in that order) to
+     * represent each step in a 20x20 grid. Each code, therefore, has 1/400th
+     * the area of the previous code.
+     *
+     * @param latVal:     The latitude as returned by latitudeToInteger.
+     * @param lngVal:     The longitude as returned by longitudeToInteger.
+     * @param codeLength: The number of pair digits required, at most
+     *                    PAIR_CODE_LENGTH_.
+     * @return The digit values, five bits each, with the last digit in the lowest
+     * bits.
+     */
+    static long encodePairs(long latVal, long lngVal, int codeLength) {
+        // Drop the grid refinement and any pair positions that aren't wanted. What
+        // is left fits in an int, which is cheaper to divide.
+        int lat = (int) (latVal / GRID_LAT_PRECISION_);
+        int lng = (int) (lngVal / GRID_LNG_PRECISION_);
+        for (int i = codeLength; i < PAIR_CODE_LENGTH_; i += 2) {
+            lat /= ENCODING_BASE_;
+            lng /= ENCODING_BASE_;
         }
-        if (code.length() == SEPARATOR_POSITION_) {
-            code.append(SEPARATOR_);
+        long digits = 0;
+        for (int shift = 0; shift < codeLength * 5; shift += 10) {
+            int latNext = lat / ENCODING_BASE_;
+            int lngNext = lng / ENCODING_BASE_;
+            digits |= (long) (lng - lngNext * ENCODING_BASE_) << shift;
+            digits |= (long) (lat - latNext * ENCODING_BASE_) << (shift + 5);
+            lat = latNext;
+            lng = lngNext;
         }
-        return code.toString();
+        return digits;
     }
 
     /**
-     * Encode a location using the grid refinement method into an OLC string.
+     * Encode a location using the grid refinement method.
      * The grid refinement method divides the area into a grid of 4x5, and uses a
      * single character to refine the area. This allows default accuracy OLC codes
      * to be refined with just a single character.
      *
-     * @param latitude:   A latitude in signed decimal degrees.
-     * @param longitude:  A longitude in signed decimal degrees.
-     * @param codeLength: The number of characters required.
-     */
-    private String encodeGrid(double latitude, double longitude, int codeLength) {
-        StringBuilder code = new StringBuilder();
-        double latPlaceValue = GRID_SIZE_DEGREES_;
-        double lngPlaceValue = GRID_SIZE_DEGREES_;
-        // Adjust latitude and longitude so they fall into positive ranges and
-        // get the offset for the required places.
-        double adjustedLatitude = (latitude + LATITUDE_MAX_) % latPlaceValue;
-        double adjustedLongitude = (longitude + LONGITUDE_MAX_) % lngPlaceValue;
-        for (int i = 0; i < codeLength; i++) {
-            // Work out the row and column.
-            double row = Math.floor(adjustedLatitude / (latPlaceValue / GRID_ROWS_));
-            double col = Math.floor(adjustedLongitude / (lngPlaceValue / GRID_COLUMNS_));
-            latPlaceValue /= GRID_ROWS_;
-            lngPlaceValue /= GRID_COLUMNS_;
-            adjustedLatitude -= row * latPlaceValue;
-            adjustedLongitude -= col * lngPlaceValue;
-            code.append(CODE_ALPHABET_.charAt((int) (row * GRID_COLUMNS_ + col)));
-        }
-        return code.toString();
-    }
-
-    /**
-     * Decode an OLC code made up of lat/lng pairs.
-     * This decodes an OLC code made up of alternating latitude and longitude
-     * characters, encoded using base 20.
-     *
-     * @param code: A valid OLC code, presumed to be full, but with the separator
-     *              removed.
-     */
-    private CodeArea decodePairs(String code) {
-        // Get the latitude and longitude values. These will need correcting from
-        // positive ranges.
-        double[] latitude = decodePairsSequence(code, 0);
-        double[] longitude = decodePairsSequence(code, 1);
-        // Correct the values and set them into the CodeArea object.
-        return new CodeArea(
-                latitude[0] - LATITUDE_MAX_,
-                longitude[0] - LONGITUDE_MAX_,
-                latitude[1] - LATITUDE_MAX_,
-                longitude[1] - LONGITUDE_MAX_,
-                code.length());
+     * @param latVal:     The latitude as returned by latitudeToInteger.
+     * @param lngVal:     The longitude as returned by longitudeToInteger.
+     * @param codeLength: The number of grid digits required, at most
+     *                    GRID_CODE_LENGTH_.
+     * @return The digit values, five bits each, with the last digit in the lowest
+     * bits.
+     */
+    static long encodeGrid(long latVal, long lngVal, int codeLength) {
+        // Keep the offset within the last pair cell, dropping unwanted places.
+        int lat = (int) (latVal % GRID_LAT_PRECISION_);
+        int lng = (int) (lngVal % GRID_LNG_PRECISION_);
+        for (int i = codeLength; i < GRID_CODE_LENGTH_; i++) {
+            lat /= GRID_ROWS_;
+            lng /= GRID_COLUMNS_;
+        }
+        long digits = 0;
+        for (int shift = 0; shift < codeLength * 5; shift += 5) {
+            digits |= (long) ((lat % GRID_ROWS_) * GRID_COLUMNS_ + lng % GRID_COLUMNS_) << shift;
+            lat /= GRID_ROWS_;
+            lng /= GRID_COLUMNS_;
+        }
+        return digits;
+    }
+
+    /**
+     * Decode the digits of a full code into a new CodeArea.
+     */
+    private CodeArea decodeDigits(long pairs, long grid, int codeLength) {
+        MutableCodeArea area = new MutableCodeArea();
+        decodeDigits(pairs, grid, codeLength, area);
+        return new CodeArea(area);
+    }
+
+    /**
+     * Decode the digits of a full code into a caller supplied area.
+     * The lat/lng pair digits and the grid refinement digits are combined into
+     * integer counts of the smallest grid cells, which are converted to degrees
+     * with a single division each. This avoids accumulating rounding errors.
+     *
+     * @param pairs:      The pair digit values, five bits each, with the last digit
+     *                    in the lowest bits.
+     * @param grid:       The grid digit values, in the same form.
+     * @param codeLength: The total number of digits, at most MAX_DIGIT_COUNT_.
+     * @param out:        The area to write the result into.
+     */
+    static void decodeDigits(long pairs, long grid, int codeLength, MutableCodeArea out) {
+        int pairLength = Math.min(codeLength, PAIR_CODE_LENGTH_);
+        long latVal = 0;
+        long lngVal = 0;
+        for (int shift = 5 * (pairLength - 1); shift > 0; shift -= 10) {
+            latVal = latVal * ENCODING_BASE_ + (pairs >>> shift & 31);
+            lngVal = lngVal * ENCODING_BASE_ + (pairs >>> (shift - 5) & 31);
+        }
+        // Scale the pairs up to the size of their last place.
+        long latPlace = GRID_LAT_PRECISION_;
+        long lngPlace = GRID_LNG_PRECISION_;
+        for (int i = pairLength; i < PAIR_CODE_LENGTH_; i += 2) {
+            latPlace *= ENCODING_BASE_;
+            lngPlace *= ENCODING_BASE_;
+        }
+        latVal *= latPlace;
+        lngVal *= lngPlace;
+        // Each grid digit selects a cell within the previous one.
+        for (int shift = 5 * (codeLength - pairLength - 1); shift >= 0; shift -= 5) {
+            int digit = (int) (grid >>> shift) & 31;
+            latPlace /= GRID_ROWS_;
+            lngPlace /= GRID_COLUMNS_;
+            latVal += (digit / GRID_COLUMNS_) * latPlace;
+            lngVal += (digit % GRID_COLUMNS_) * lngPlace;
+        }
+        out.set(integerToLatitude(latVal),
+                integerToLongitude(lngVal),
+                integerToLatitude(latVal + latPlace),
+                integerToLongitude(lngVal + lngPlace),
+                codeLength);
     }
 
     /**
@@ -578,7 +1572,7 @@ public class OpenLocationCode {
         int i = 0;
         double value = 0;
         while (i * 2 + offset < code.length()) {
-            value += CODE_ALPHABET_.indexOf(code.charAt(i * 2 + offset)) *
+            value += charToDigit(code.charAt(i * 2 + offset)) *
                     PAIR_RESOLUTIONS_[i];
             i += 1;
         }
@@ -586,45 +1580,23 @@ public class OpenLocationCode {
     }
 
     /**
-     * Decode the grid refinement portion of an OLC code.
-     * This decodes an OLC code using the grid refinement method.
-     * Args:
-     * code: A valid OLC code sequence that is only the grid refinement
-     * portion. This is the portion of a code starting at position 11.
-     */
-    private CodeArea decodeGrid(String code) {
-        double latitudeLo = 0.0;
-        double longitudeLo = 0.0;
-        double latPlaceValue = GRID_SIZE_DEGREES_;
-        double lngPlaceValue = GRID_SIZE_DEGREES_;
-        int i = 0;
-        while (i < code.length()) {
-            int codeIndex = CODE_ALPHABET_.indexOf(code.charAt(i));
-            double row = Math.floor(codeIndex / GRID_COLUMNS_);
-            double col = codeIndex % GRID_COLUMNS_;
+     * The area of a decoded code. Instances are immutable, so they can be
+     * shared between threads.
+     */
+    public static final class CodeArea {
 
-            latPlaceValue /= GRID_ROWS_;
-            lngPlaceValue /= GRID_COLUMNS_;
+        private final double latitudeLo;
+        private final double longitudeLo;
+        private final double latitudeHi;
+        private final double longitudeHi;
+        private final double latitudeCenter;
+        private final double longitudeCenter;
+        private final int codeLength;
 
-            latitudeLo += row * latPlaceValue;
-            longitudeLo += col * lngPlaceValue;
-            i += 1;
+        CodeArea(MutableCodeArea area) {
+            this(area.getLatitudeLo(), area.getLongitudeLo(), area.getLatitudeHi(),
+                    area.getLongitudeHi(), area.getCodeLength());
         }
-        return new CodeArea(
-                latitudeLo, longitudeLo, latitudeLo + latPlaceValue,
-                longitudeLo + lngPlaceValue, code.length());
-    }
-
-
-    public class CodeArea {
-
-        private double latitudeLo;
-        private double longitudeLo;
-        private double latitudeHi;
-        private double longitudeHi;
-        private double latitudeCenter;
-        private double longitudeCenter;
-        private int codeLength;
 
         public CodeArea(double latitudeLo, double longitudeLo, double latitudeHi, double longitudeHi, int codeLength) {
             this.codeLength = codeLength;
@@ -0,0 +1,128 @@
+package com.windlessuser.olc;
+
+/**
+ * The result of validating an Open Location Code once.
+ * A ParsedCode records what kind of code a String is, where its separator and
+ * padding are, and the values of its digits. It can be passed to decode,
+ * shorten and recoverNearest so they don't need to validate the code again.
+ * Instances are created with OpenLocationCode.parse and are immutable.
+ */
+public final class ParsedCode {
+
+    /**
+     * The kinds of code that a String can be.
+     */
+    public enum Kind {
+        FULL, SHORT, INVALID
+    }
+
+    private final String code;
+    private final Kind kind;
+    private final int separatorIndex;
+    private final int paddingIndex;
+    private final int codeLength;
+    private final byte[] digits;
+
+    ParsedCode(String code) {
+        this.code = code;
+        this.digits = new byte[code == null ? 0 : code.length()];
+        int separator = OpenLocationCode.scan(code, digits);
+        if (separator < 0) {
+            this.kind = Kind.INVALID;
+            this.separatorIndex = -1;
+            this.paddingIndex = -1;
+            this.codeLength = 0;
+            return;
+        }
+        // Padding always runs up to the separator, so it can be found from there.
+        int padding = separator;
+        while (padding > 0 && code.charAt(padding - 1) == OpenLocationCode.PADDING_CHAR_) {
+            padding--;
+        }
+        this.separatorIndex = separator;
+        this.paddingIndex = padding < separator ? padding : -1;
+        this.codeLength = padding < separator ? padding : code.length() - 1;
+        this.kind = OpenLocationCode.kindOf(code, separator);
+    }
+
+    /**
+     * The code that was parsed, exactly as it was passed.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isValid() {
+        return kind != Kind.INVALID;
+    }
+
+    public boolean isFull() {
+        return kind == Kind.FULL;
+    }
+
+    public boolean isShort() {
+        return kind == Kind.SHORT;
+    }
+
+    /**
+     * The position of the separator in the code, or -1 if the code is invalid.
+     */
+    public int getSeparatorIndex() {
+        return separatorIndex;
+    }
+
+    /**
+     * The position of the first padding character, or -1 if the code isn't padded.
+     */
+    public int getPaddingIndex() {
+        return paddingIndex;
+    }
+
+    public boolean isPadded() {
+        return paddingIndex >= 0;
+    }
+
+    /**
+     * The number of digits in the code, not counting the separator or padding.
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * Get the value of one digit of the code. This is the index of the digit's
+     * character in OpenLocationCode.CODE_ALPHABET_.
+     *
+     * @param index: The digit position, starting from zero.
+     */
+    public int getDigit(int index) {
+        if (index < 0 || index >= codeLength) {
+            throw new IndexOutOfBoundsException("Digit " + index + " of " + codeLength);
+        }
+        return digits[index];
+    }
+
+    /**
+     * Get the values of a run of digits, five bits each, with the last digit in
+     * the lowest bits.
+     *
+     * @param from: The first digit position.
+     * @param to:   The position after the last digit, at most twelve after from.
+     */
+    long digitBits(int from, int to) {
+        long bits = 0;
+        for (int i = from; i < to; i++) {
+            bits = bits << 5 | digits[i];
+        }
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
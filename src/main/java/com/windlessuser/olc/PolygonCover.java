@@ -0,0 +1,101 @@
+package com.windlessuser.olc;
+
+/**
+ * The cells covering a polygon, from OlcCover.coverPolygon.
+ * Interior cells are inside the polygon and boundary cells are the cells of
+ * the chosen length that the polygon's edges pass through. Together they
+ * cover the polygon. Interior cells are as large as possible, so a big
+ * polygon needs few of them, and a location is looked up by checking each of
+ * its code's prefixes in a hash set.
+ * <p/>
+ * A cover can't be changed once it is built, so it can be shared between
+ * threads.
+ */
+public final class PolygonCover {
+
+    /**
+     * Where a location is relative to the cover.
+     */
+    public enum Position {
+        // In an interior cell, so inside the polygon.
+        INTERIOR,
+        // In a boundary cell, so the polygon's edge is nearby.
+        BOUNDARY,
+        // In neither, so outside the polygon.
+        EXTERIOR
+    }
+
+    private final int codeLength;
+    private final long[] interiorCells;
+    private final long[] boundaryCells;
+    private final LongHashSet interior;
+    private final LongHashSet boundary;
+
+    PolygonCover(int codeLength, long[] interiorCells, long[] boundaryCells) {
+        this.codeLength = codeLength;
+        this.interiorCells = interiorCells;
+        this.boundaryCells = boundaryCells;
+        this.interior = new LongHashSet(interiorCells.length);
+        for (int i = 0; i < interiorCells.length; i++) {
+            interior.add(interiorCells[i]);
+        }
+        this.boundary = new LongHashSet(boundaryCells.length);
+        for (int i = 0; i < boundaryCells.length; i++) {
+            boundary.add(boundaryCells[i]);
+        }
+    }
+
+    /**
+     * The length of the boundary cells. Interior cells are this long or shorter.
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * Get the packed codes of the interior cells, in ascending order.
+     */
+    public long[] getInteriorCells() {
+        return interiorCells.clone();
+    }
+
+    /**
+     * Get the packed codes of the boundary cells, in ascending order.
+     */
+    public long[] getBoundaryCells() {
+        return boundaryCells.clone();
+    }
+
+    /**
+     * Find where a location is relative to the cover.
+     *
+     * @param latitude:  A latitude in signed decimal degrees.
+     * @param longitude: A longitude in signed decimal degrees.
+     */
+    public Position classify(double latitude, double longitude) {
+        return classify(OpenLocationCode.encodePacked(latitude, longitude, codeLength));
+    }
+
+    /**
+     * Find where a cell is relative to the cover.
+     *
+     * @param code: A packed code at least as long as the cover's code length.
+     */
+    public Position classify(long code) {
+        int length = OlcLong.getCodeLength(code);
+        if (length < codeLength) {
+            throw new IllegalArgumentException("ValueError: The code has " + length +
+                    " digits but the cover needs at least " + codeLength);
+        }
+        long digits = OlcLong.digits(code);
+        for (int prefix = 2; prefix <= codeLength; prefix = OlcCover.nextLength(prefix)) {
+            if (interior.contains(OlcLong.pack(digits >>> (OlcLong.DIGIT_BITS_ * (length - prefix)), prefix))) {
+                return Position.INTERIOR;
+            }
+        }
+        if (boundary.contains(OlcLong.pack(digits >>> (OlcLong.DIGIT_BITS_ * (length - codeLength)), codeLength))) {
+            return Position.BOUNDARY;
+        }
+        return Position.EXTERIOR;
+    }
+}
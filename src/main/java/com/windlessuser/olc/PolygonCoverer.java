@@ -0,0 +1,281 @@
+package com.windlessuser.olc;
+
+import java.util.Arrays;
+
+/**
+ * Works out the cover of one polygon by recursive subdivision.
+ * The vertices are converted to the integer units of latitudeToInteger and
+ * longitudeToInteger, kept as doubles, so cell edges are exact. Starting from
+ * the two character cells over the polygon's bounding box, each cell is
+ * checked against the edges that pass through its parent:
+ * <ul>
+ * <li>If no edge passes through its inside, it is all inside or all outside, as its
+ * center is. Inside cells become interior cells.</li>
+ * <li>Otherwise cells of the cover's length become boundary cells, and
+ * shorter cells are split into their 20x20 or 4x5 children.</li>
+ * </ul>
+ * Whether a child's center is inside is found from its parent's center, by
+ * counting the parent's edges crossed going across and then up to the
+ * child's center. Only the two character cells are tested against every edge.
+ * <p/>
+ * The "center" is nudged off the true center by a fraction of a unit, since
+ * polygons drawn in round degrees put vertices and edges exactly on cell
+ * centers, where the crossing counts would disagree.
+ */
+final class PolygonCoverer {
+
+    private static final double REFERENCE_OFFSET_X_ = 1.0 / 3;
+    private static final double REFERENCE_OFFSET_Y_ = 1.0 / 7;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int codeLength;
+    private long[] interior = new long[64];
+    private int interiorCount;
+    private long[] boundary = new long[64];
+    private int boundaryCount;
+
+    PolygonCoverer(double[] latitudes, double[] longitudes, int codeLength) {
+        this.codeLength = codeLength;
+        this.xs = new double[longitudes.length];
+        this.ys = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            ys[i] = (OpenLocationCode.clipLatitude(latitudes[i]) + OpenLocationCode.LATITUDE_MAX_)
+                    * OpenLocationCode.LAT_INTEGER_MULTIPLIER_;
+            xs[i] = (longitudes[i] + OpenLocationCode.LONGITUDE_MAX_) * OpenLocationCode.LNG_INTEGER_MULTIPLIER_;
+        }
+    }
+
+    PolygonCover cover() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        int[] edges = new int[xs.length];
+        int edgeCount = 0;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            int next = (i + 1) % xs.length;
+            // Skip repeated vertices, such as a closing vertex equal to the first.
+            if (xs[i] != xs[next] || ys[i] != ys[next]) {
+                edges[edgeCount++] = i;
+            }
+        }
+        long height = OlcCover.cellHeight(2);
+        long width = OlcCover.cellWidth(2);
+        long lastRow = Math.min((long) (maxY / height), OlcCover.LAT_INTEGER_MAX_ / height - 1);
+        long lastColumn = Math.min((long) (maxX / width), OlcCover.LNG_INTEGER_MAX_ / width - 1);
+        for (long row = Math.max(0, (long) (minY / height)); row <= lastRow; row++) {
+            for (long column = Math.max(0, (long) (minX / width)); column <= lastColumn; column++) {
+                long lat = row * height;
+                long lng = column * width;
+                int[] cellEdges = new int[edgeCount];
+                int cellEdgeCount = 0;
+                for (int i = 0; i < edgeCount; i++) {
+                    if (crosses(edges[i], lng, lat, lng + width, lat + height)) {
+                        cellEdges[cellEdgeCount++] = edges[i];
+                    }
+                }
+                boolean inside = contains(edges, edgeCount, referenceX(lng, width), referenceY(lat, height));
+                process(lat, lng, 2, cellEdges, cellEdgeCount, inside);
+            }
+        }
+        long[] interiorCells = new long[interiorCount];
+        System.arraycopy(interior, 0, interiorCells, 0, interiorCount);
+        Arrays.sort(interiorCells);
+        long[] boundaryCells = new long[boundaryCount];
+        System.arraycopy(boundary, 0, boundaryCells, 0, boundaryCount);
+        Arrays.sort(boundaryCells);
+        return new PolygonCover(codeLength, interiorCells, boundaryCells);
+    }
+
+    /**
+     * Add a cell, or its descendants, to the cover.
+     *
+     * @param lat:          The latitude integer of the cell's southern edge.
+     * @param lng:          The longitude integer of the cell's western edge.
+     * @param length:       The length of the cell's code.
+     * @param edges:        The edges that pass through the cell.
+     * @param edgeCount:    The number of edges in the array.
+     * @param centerInside: Whether the cell's reference point is inside the polygon.
+     */
+    private void process(long lat, long lng, int length, int[] edges, int edgeCount, boolean centerInside) {
+        if (edgeCount == 0) {
+            if (centerInside) {
+                interior = add(interior, interiorCount++, OpenLocationCode.packIntegers(lat, lng, length));
+            }
+            return;
+        }
+        if (length == codeLength) {
+            boundary = add(boundary, boundaryCount++, OpenLocationCode.packIntegers(lat, lng, length));
+            return;
+        }
+        long height = OlcCover.cellHeight(length);
+        long width = OlcCover.cellWidth(length);
+        int childLength = OlcCover.nextLength(length);
+        long childHeight = OlcCover.cellHeight(childLength);
+        long childWidth = OlcCover.cellWidth(childLength);
+        int rows = (int) (height / childHeight);
+        int columns = (int) (width / childWidth);
+        // Hand each edge to the children its bounding box overlaps that it crosses.
+        int[][] childEdges = new int[rows * columns][];
+        int[] childEdgeCounts = new int[rows * columns];
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = edges[i];
+            int next = (edge + 1) % xs.length;
+            int firstRow = clamp((Math.min(ys[edge], ys[next]) - lat) / childHeight, rows);
+            int lastRow = clamp((Math.max(ys[edge], ys[next]) - lat) / childHeight, rows);
+            int firstColumn = clamp((Math.min(xs[edge], xs[next]) - lng) / childWidth, columns);
+            int lastColumn = clamp((Math.max(xs[edge], xs[next]) - lng) / childWidth, columns);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    long childLat = lat + row * childHeight;
+                    long childLng = lng + column * childWidth;
+                    if (crosses(edge, childLng, childLat, childLng + childWidth, childLat + childHeight)) {
+                        int child = row * columns + column;
+                        if (childEdges[child] == null) {
+                            childEdges[child] = new int[Math.min(edgeCount, 8)];
+                        }
+                        childEdges[child] = addEdge(childEdges[child], childEdgeCounts[child]++, edge);
+                    }
+                }
+            }
+        }
+        double centerX = referenceX(lng, width);
+        double centerY = referenceY(lat, height);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                long childLat = lat + row * childHeight;
+                long childLng = lng + column * childWidth;
+                double childX = referenceX(childLng, childWidth);
+                double childY = referenceY(childLat, childHeight);
+                boolean inside = centerInside
+                        ^ crossesAcross(edges, edgeCount, centerY, centerX, childX)
+                        ^ crossesUp(edges, edgeCount, childX, centerY, childY);
+                int child = row * columns + column;
+                process(childLat, childLng, childLength, childEdges[child], childEdgeCounts[child], inside);
+            }
+        }
+    }
+
+    private static double referenceX(long lng, long width) {
+        return lng + width / 2.0 + REFERENCE_OFFSET_X_;
+    }
+
+    private static double referenceY(long lat, long height) {
+        return lat + height / 2.0 + REFERENCE_OFFSET_Y_;
+    }
+
+    private static int clamp(double index, int count) {
+        return (int) Math.max(0, Math.min(count - 1, Math.floor(index)));
+    }
+
+    private static long[] add(long[] cells, int index, long cell) {
+        if (index == cells.length) {
+            long[] grown = new long[cells.length * 2];
+            System.arraycopy(cells, 0, grown, 0, cells.length);
+            cells = grown;
+        }
+        cells[index] = cell;
+        return cells;
+    }
+
+    private static int[] addEdge(int[] edges, int index, int edge) {
+        if (index == edges.length) {
+            int[] grown = new int[edges.length * 2];
+            System.arraycopy(edges, 0, grown, 0, edges.length);
+            edges = grown;
+        }
+        edges[index] = edge;
+        return edges;
+    }
+
+    /**
+     * Test whether a point is inside the polygon, by counting the edges a ray
+     * from the point to the east crosses.
+     */
+    private boolean contains(int[] edges, int edgeCount, double x, double y) {
+        boolean inside = false;
+        for (int i = 0; i < edgeCount; i++) {
+            int a = edges[i];
+            int b = (a + 1) % xs.length;
+            if ((ys[a] > y) != (ys[b] > y) &&
+                    xs[a] + (y - ys[a]) * (xs[b] - xs[a]) / (ys[b] - ys[a]) > x) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Test whether an odd number of edges cross the horizontal line at y
+     * between x0 and x1. This is the difference between the ray tests from
+     * the two ends.
+     */
+    private boolean crossesAcross(int[] edges, int edgeCount, double y, double x0, double x1) {
+        double low = Math.min(x0, x1);
+        double high = Math.max(x0, x1);
+        boolean odd = false;
+        for (int i = 0; i < edgeCount; i++) {
+            int a = edges[i];
+            int b = (a + 1) % xs.length;
+            if ((ys[a] > y) != (ys[b] > y)) {
+                double x = xs[a] + (y - ys[a]) * (xs[b] - xs[a]) / (ys[b] - ys[a]);
+                if (x > low && x <= high) {
+                    odd = !odd;
+                }
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * Test whether an odd number of edges cross the vertical line at x
+     * between y0 and y1.
+     */
+    private boolean crossesUp(int[] edges, int edgeCount, double x, double y0, double y1) {
+        double low = Math.min(y0, y1);
+        double high = Math.max(y0, y1);
+        boolean odd = false;
+        for (int i = 0; i < edgeCount; i++) {
+            int a = edges[i];
+            int b = (a + 1) % xs.length;
+            if ((xs[a] > x) != (xs[b] > x)) {
+                double y = ys[a] + (x - xs[a]) * (ys[b] - ys[a]) / (xs[b] - xs[a]);
+                if (y > low && y <= high) {
+                    odd = !odd;
+                }
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * Test whether an edge passes through the inside of a cell. Edges that
+     * only touch the cell's border don't, so a polygon whose edges lie on cell
+     * borders has no boundary cells along them. The bounding box and corner
+     * tests are exact, since they test every axis that could separate a
+     * rectangle from a segment.
+     */
+    private boolean crosses(int edge, double x0, double y0, double x1, double y1) {
+        int next = (edge + 1) % xs.length;
+        double ax = xs[edge];
+        double ay = ys[edge];
+        double bx = xs[next];
+        double by = ys[next];
+        if (Math.max(ax, bx) <= x0 || Math.min(ax, bx) >= x1 || Math.max(ay, by) <= y0 || Math.min(ay, by) >= y1) {
+            return false;
+        }
+        // The edge's line crosses the cell unless all four corners are on one side.
+        double dx = bx - ax;
+        double dy = by - ay;
+        double c0 = dx * (y0 - ay) - dy * (x0 - ax);
+        double c1 = dx * (y0 - ay) - dy * (x1 - ax);
+        double c2 = dx * (y1 - ay) - dy * (x0 - ax);
+        double c3 = dx * (y1 - ay) - dy * (x1 - ax);
+        return !(c0 >= 0 && c1 >= 0 && c2 >= 0 && c3 >= 0) && !(c0 <= 0 && c1 <= 0 && c2 <= 0 && c3 <= 0);
+    }
+}
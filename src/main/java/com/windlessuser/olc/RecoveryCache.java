@@ -0,0 +1,201 @@
+package com.windlessuser.olc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of recoverNearest results, for services that recover the
+ * same short codes against the same reference locations over and over.
+ * <p/>
+ * Entries are keyed by the short code and the exact reference location,
+ * after clipping and normalizing. The reference can't be rounded to the short
+ * code's resolution: the result moves one cell when the reference is more
+ * than half a cell from the code's center, so two references in the same
+ * cell can recover different codes.
+ * <p/>
+ * The cache is split into stripes, each an access ordered LinkedHashMap
+ * behind its own lock, so threads only contend when their keys land in the
+ * same stripe. Each stripe drops its least recently used entry when it is
+ * full. A miss is recovered outside the lock, so two threads missing on the
+ * same key may both recover it.
+ */
+public final class RecoveryCache {
+
+    // Most stripes in a cache, a power of two.
+    private static final int STRIPE_COUNT_ = 16;
+
+    private final OpenLocationCode olc = Olc.getInstance();
+    private final Stripe[] stripes;
+    private final int capacity;
+
+    /**
+     * @param capacity: The most entries to keep. The stripes share it out
+     *                  between them, so the cache may drop entries a little
+     *                  before it is full, but never holds more. A cache smaller
+     *                  than 16 entries uses fewer stripes.
+     */
+    public RecoveryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("ValueError: Invalid cache capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        int stripeCount = Integer.highestOneBit(Math.min(capacity, STRIPE_COUNT_));
+        stripes = new Stripe[stripeCount];
+        // The first capacity % stripeCount stripes take one entry more, so the
+        // shares add up to the capacity.
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Recover the nearest matching code to a location, from the cache if it has
+     * been recovered before. See OpenLocationCode.recoverNearest.
+     *
+     * @param shortCode:          A valid short code, or a full code, which is
+     *                            returned unchanged.
+     * @param referenceLatitude:  The latitude to recover the code near.
+     * @param referenceLongitude: The longitude to recover the code near.
+     * @throws IllegalArgumentException if the code is neither a valid short code
+     *                                  nor a valid full code. Failures are not
+     *                                  cached.
+     */
+    public String recoverNearest(String shortCode, double referenceLatitude, double referenceLongitude) {
+        if (shortCode == null) {
+            throw new IllegalArgumentException("ValueError: Passed short code is not valid: null");
+        }
+        Key key = new Key(shortCode,
+                OpenLocationCode.clipLatitude(referenceLatitude),
+                OpenLocationCode.normalizeLongitude(referenceLongitude));
+        Stripe stripe = stripes[key.hash & (stripes.length - 1)];
+        String code;
+        synchronized (stripe) {
+            code = stripe.get(key);
+            if (code != null) {
+                stripe.hits++;
+                return code;
+            }
+            stripe.misses++;
+        }
+        code = olc.recoverNearest(shortCode, key.latitude, key.longitude);
+        synchronized (stripe) {
+            stripe.put(key, code);
+        }
+        return code;
+    }
+
+    /**
+     * The most entries the cache keeps.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of entries in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                size += stripes[i].size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The number of calls answered from the cache.
+     */
+    public long getHitCount() {
+        long hits = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                hits += stripes[i].hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * The number of calls that had to recover the code, including calls that
+     * failed.
+     */
+    public long getMissCount() {
+        long misses = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                misses += stripes[i].misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Remove every entry. The hit and miss counts are kept.
+     */
+    public void clear() {
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                stripes[i].clear();
+            }
+        }
+    }
+
+    /**
+     * One stripe of the cache. It is only used while holding its own lock, which
+     * also guards the counts.
+     */
+    private static final class Stripe extends LinkedHashMap<Key, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        long hits;
+        long misses;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class Key {
+
+        final String shortCode;
+        final double latitude;
+        final double longitude;
+        final int hash;
+
+        Key(String shortCode, double latitude, double longitude) {
+            this.shortCode = shortCode;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            long bits = Double.doubleToLongBits(latitude) * 31 + Double.doubleToLongBits(longitude);
+            int h = shortCode.hashCode() * 31 + (int) (bits ^ (bits >>> 32));
+            // Spread the high bits down, since the stripe is picked from the low bits.
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && shortCode.equals(key.shortCode) &&
+                    Double.doubleToLongBits(latitude) == Double.doubleToLongBits(key.latitude) &&
+                    Double.doubleToLongBits(longitude) == Double.doubleToLongBits(key.longitude);
+        }
+    }
+}
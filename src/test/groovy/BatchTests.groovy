@@ -0,0 +1,308 @@
+import com.windlessuser.olc.OlcBulk
+import com.windlessuser.olc.OlcLong
+import com.windlessuser.olc.OpenLocationCode
+import spock.lang.Specification
+
+class BatchTests extends Specification {
+
+    def "Batch encoding matches encoding one location at a time"(){
+        setup: "Creating the olc and some locations"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(42)
+        double[] latitudes = (0..<500).collect { random.nextDouble() * 180 - 90 } as double[]
+        double[] longitudes = (0..<500).collect { random.nextDouble() * 360 - 180 } as double[]
+        long[] packed = new long[500]
+        int stride = olc.getEncodedLength(codeLength)
+        char[] slab = new char[500 * stride]
+
+        when:
+        olc.encodeBatch(latitudes,longitudes,codeLength,packed)
+        olc.encodeBatch(latitudes,longitudes,codeLength,slab)
+
+        then:
+        (0..<500).every { packed[it] == olc.encodeToLong(latitudes[it],longitudes[it],codeLength) }
+        (0..<500).every { new String(slab,it * stride,stride) == olc.encode(latitudes[it],longitudes[it],codeLength) }
+
+        where:
+        codeLength << [2, 6, 8, 10, 11, 12]
+    }
+
+    def "Batch encoding checks its columns"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        olc.encodeBatch(new double[3],new double[2],10,new long[3])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Parallel encoding matches batch encoding"(){
+        setup: "Creating the olc and more locations than fit in one chunk"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(11)
+        int count = 100003
+        double[] latitudes = new double[count]
+        double[] longitudes = new double[count]
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90
+            longitudes[i] = random.nextDouble() * 360 - 180
+        }
+        long[] expected = new long[count]
+        long[] shared = new long[count]
+        long[] supplied = new long[count]
+        def executor = java.util.concurrent.Executors.newFixedThreadPool(3)
+
+        when:
+        olc.encodeBatch(latitudes,longitudes,11,expected)
+        OlcBulk.encodeParallel(latitudes,longitudes,11,shared)
+        OlcBulk.encodeParallel(latitudes,longitudes,11,supplied,executor,3)
+
+        then:
+        Arrays.equals(shared, expected)
+        Arrays.equals(supplied, expected)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Parallel encoding from the executor's own thread finishes"(){
+        setup: "Creating a single thread executor and more locations than fit in one chunk"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(17)
+        int count = 10007
+        double[] latitudes = new double[count]
+        double[] longitudes = new double[count]
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90
+            longitudes[i] = random.nextDouble() * 360 - 180
+        }
+        long[] expected = new long[count]
+        long[] nested = new long[count]
+        def executor = java.util.concurrent.Executors.newSingleThreadExecutor()
+
+        when: "The only thread encodes, asking for more threads than the executor has"
+        olc.encodeBatch(latitudes,longitudes,11,expected)
+        executor.submit({
+            OlcBulk.encodeParallel(latitudes,longitudes,11,nested,executor,4)
+        } as Runnable).get(30, java.util.concurrent.TimeUnit.SECONDS)
+
+        then:
+        Arrays.equals(nested, expected)
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "Parallel chunks have all finished when the batch returns"(){
+        setup: "Making a pool worker whose chunk is slow, and a caller that waits for it to start"
+        def executor = java.util.concurrent.Executors.newFixedThreadPool(1)
+        Thread caller = Thread.currentThread()
+        def poolStarted = new java.util.concurrent.CountDownLatch(1)
+        def processed = new java.util.concurrent.atomic.AtomicInteger()
+        // The worker types are package private, so they are found at run time.
+        def type = { String name -> OlcBulk.declaredClasses.find { it.simpleName == name } }
+        def worker = { long from, long to ->
+            if (Thread.currentThread() == caller) {
+                poolStarted.await(10, java.util.concurrent.TimeUnit.SECONDS)
+            } else {
+                poolStarted.countDown()
+                Thread.sleep(200)
+            }
+            processed.addAndGet((int) (to - from))
+        }.asType(type("ChunkWorker"))
+
+        when: "The caller finishes its chunks while the pool's chunk is still running"
+        OlcBulk.forEachChunk(8L, 1, executor, 2, { -> worker }.asType(type("ChunkWorkerFactory")))
+
+        then:
+        processed.get() == 8
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Transcoding a file matches batch encoding"(){
+        setup: "Writing a file with more records than fit in one chunk"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(13)
+        int count = (1 << 20) + 4099
+        double[] latitudes = new double[count]
+        double[] longitudes = new double[count]
+        File input = File.createTempFile("locations", ".bin")
+        File output = File.createTempFile("codes", ".bin")
+        input.deleteOnExit()
+        output.deleteOnExit()
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(input))).withStream { stream ->
+            for (int i = 0; i < count; i++) {
+                latitudes[i] = random.nextDouble() * 180 - 90
+                longitudes[i] = random.nextDouble() * 360 - 180
+                stream.writeDouble(latitudes[i])
+                stream.writeDouble(longitudes[i])
+            }
+        }
+        long[] expected = new long[count]
+        olc.encodeBatch(latitudes,longitudes,10,expected)
+
+        when:
+        long written = OlcBulk.transcode(input,output,10)
+
+        then:
+        written == count
+        output.length() == 8L * count
+        new DataInputStream(new BufferedInputStream(new FileInputStream(output))).withStream { stream ->
+            (0..<count).every { stream.readLong() == expected[it] }
+        }
+    }
+
+    def "Transcoding waits for every chunk when one fails"(){
+        setup: "Making an executor that interrupts the first chunk and counts running tasks"
+        File input = File.createTempFile("locations", ".bin")
+        File output = File.createTempFile("codes", ".bin")
+        input.deleteOnExit()
+        output.deleteOnExit()
+        new RandomAccessFile(input, "rw").withCloseable { it.setLength(3L * 16 * (1 << 20)) }
+        def started = new java.util.concurrent.atomic.AtomicInteger()
+        def submitted = new java.util.concurrent.atomic.AtomicInteger()
+        def finished = new java.util.concurrent.atomic.AtomicInteger()
+        def executor = new java.util.concurrent.ThreadPoolExecutor(2, 2, 0, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.LinkedBlockingQueue<Runnable>()) {
+            protected <T> java.util.concurrent.RunnableFuture<T> newTaskFor(java.util.concurrent.Callable<T> task) {
+                submitted.incrementAndGet()
+                return super.newTaskFor({
+                    try {
+                        if (started.getAndIncrement() == 0) {
+                            // Mapping on an interrupted thread closes the channels.
+                            Thread.currentThread().interrupt()
+                        }
+                        return task.call()
+                    } finally {
+                        finished.incrementAndGet()
+                    }
+                } as java.util.concurrent.Callable<T>)
+            }
+        }
+
+        when:
+        OlcBulk.transcode(input,output,10,java.nio.ByteOrder.BIG_ENDIAN,executor,2)
+
+        then:
+        thrown(IOException)
+        submitted.get() == 1
+        finished.get() == submitted.get()
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Transcoding returns after a slower pool chunk has been written"(){
+        setup: "Making an executor whose thread takes the large first chunk, leaving the caller one record"
+        File input = File.createTempFile("locations", ".bin")
+        File output = File.createTempFile("codes", ".bin")
+        input.deleteOnExit()
+        output.deleteOnExit()
+        int count = (1 << 20) + 1
+        new RandomAccessFile(input, "rw").withCloseable { it.setLength(16L * count) }
+        long expected = new OpenLocationCode().encodeToLong(0.0,0.0,10)
+        def started = new java.util.concurrent.CountDownLatch(1)
+        def finished = new java.util.concurrent.atomic.AtomicInteger()
+        def executor = new java.util.concurrent.ThreadPoolExecutor(1, 1, 0, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.LinkedBlockingQueue<Runnable>()) {
+            protected <T> java.util.concurrent.RunnableFuture<T> newTaskFor(java.util.concurrent.Callable<T> task) {
+                return super.newTaskFor({
+                    started.countDown()
+                    try {
+                        return task.call()
+                    } finally {
+                        finished.incrementAndGet()
+                    }
+                } as java.util.concurrent.Callable<T>)
+            }
+
+            void execute(Runnable task) {
+                super.execute(task)
+                // Execute runs on the calling thread, so hold it back until the
+                // pool thread has taken the first chunk.
+                started.await()
+                Thread.sleep(50)
+            }
+        }
+
+        when:
+        OlcBulk.transcode(input,output,10,java.nio.ByteOrder.BIG_ENDIAN,executor,2)
+        int finishedOnReturn = finished.get()
+
+        then:
+        finishedOnReturn == 1
+        new DataInputStream(new BufferedInputStream(new FileInputStream(output))).withStream { stream ->
+            (0..<count).every { stream.readLong() == expected }
+        }
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Transcoding rejects a partial record"(){
+        setup: "Writing a file that ends part way through a record"
+        File input = File.createTempFile("locations", ".bin")
+        File output = File.createTempFile("codes", ".bin")
+        input.deleteOnExit()
+        output.deleteOnExit()
+        input.bytes = new byte[20]
+
+        when:
+        OlcBulk.transcode(input,output,10)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Transcoding rejects a record that is not a location"(){
+        setup: "Writing a file with an infinite longitude in its third record"
+        File input = File.createTempFile("locations", ".bin")
+        File output = File.createTempFile("codes", ".bin")
+        input.deleteOnExit()
+        output.deleteOnExit()
+        new DataOutputStream(new FileOutputStream(input)).withStream { stream ->
+            [[1.0, 2.0], [3.0, 4.0], [5.0, Double.POSITIVE_INFINITY], [7.0, 8.0]].each {
+                stream.writeDouble(it[0])
+                stream.writeDouble(it[1])
+            }
+        }
+
+        when:
+        OlcBulk.transcode(input,output,10)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains("Record 2")
+    }
+
+    def "Batch decoding matches decoding one code at a time"(){
+        setup: "Creating the olc and some codes"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(7)
+        long[] packed = (0..<200).collect {
+            olc.encodeToLong(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, 11)
+        } as long[]
+        String[] codes = packed.collect { OlcLong.toString(it) } as String[]
+        double[][] fromStrings = new double[4][200]
+        double[][] fromPacked = new double[4][200]
+        double[][] centers = new double[2][200]
+
+        when:
+        olc.decodeBatch(codes,fromStrings[0],fromStrings[1],fromStrings[2],fromStrings[3])
+        olc.decodeBatch(packed,fromPacked[0],fromPacked[1],fromPacked[2],fromPacked[3])
+        olc.decodeCenters(codes,centers[0],centers[1])
+
+        then:
+        fromStrings == fromPacked
+        (0..<200).every {
+            OpenLocationCode.CodeArea area = olc.decode(codes[it])
+            fromStrings[0][it] == area.latitudeLo && fromStrings[1][it] == area.longitudeLo &&
+                    fromStrings[2][it] == area.latitudeHi && fromStrings[3][it] == area.longitudeHi &&
+                    centers[0][it] == area.latitudeCenter && centers[1][it] == area.longitudeCenter
+        }
+    }
+}
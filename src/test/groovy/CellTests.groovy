@@ -0,0 +1,252 @@
+import com.windlessuser.olc.OlcCells
+import com.windlessuser.olc.OlcLong
+import com.windlessuser.olc.OpenLocationCode
+import spock.lang.Specification
+
+class CellTests extends Specification {
+
+    def "Neighbors match encoding an offset location"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(codeLength)
+
+        expect:
+        (0..<300).every {
+            double latitude = random.nextDouble() * 180 - 90
+            double longitude = random.nextDouble() * 360 - 180
+            int latitudeSteps = random.nextInt(41) - 20
+            int longitudeSteps = random.nextInt(41) - 20
+            String code = olc.encode(latitude, longitude, codeLength)
+            OpenLocationCode.CodeArea area = olc.decode(code)
+            double height = area.latitudeHi - area.latitudeLo
+            double width = area.longitudeHi - area.longitudeLo
+            String expected = olc.encode(area.latitudeCenter + latitudeSteps * height,
+                    area.longitudeCenter + longitudeSteps * width, codeLength)
+            OlcCells.neighbor(code, latitudeSteps, longitudeSteps) == expected &&
+                    (codeLength > OlcLong.MAX_DIGIT_COUNT_ ||
+                            OlcCells.neighbor(OlcLong.parse(code), latitudeSteps, longitudeSteps) == OlcLong.parse(expected))
+        }
+
+        where:
+        codeLength << [2, 4, 6, 8, 10, 11, 12, 15]
+    }
+
+    def "Neighbors wrap round the 180th meridian and stop at the poles"(){
+        expect:
+        OlcCells.neighbor(code, latitudeSteps, longitudeSteps) == expected
+        OlcCells.neighbor(OlcLong.parse(code), latitudeSteps, longitudeSteps) == OlcLong.parse(expected)
+
+        where:
+        code          | latitudeSteps | longitudeSteps | expected
+        "8FVC9G8F+6W" | 0             | 1              | "8FVC9G8F+6X"
+        "8FVC9G8F+6X" | 0             | 1              | "8FVC9G8G+62"
+        "8FVC9G8F+6W" | 1             | 0              | "8FVC9G8F+7W"
+        "8FVC9G8F+XW" | 1             | 0              | "8FVC9G9F+2W"
+        "8FVCXXXX+"   | 1             | 1              | "8FWF2222+"
+        "62G20000+"   | 0             | -1             | "6VGX0000+"
+        "CFX30000+"   | 3             | 0              | "CFX30000+"
+        "22220000+"   | -1            | 0              | "22220000+"
+    }
+
+    def "Cells have eight neighbors except next to the poles"(){
+        expect:
+        OlcCells.neighbors(code) as List == expected
+        OlcCells.neighbors(OlcLong.parse(code)).collect { OlcLong.toString(it) } == expected
+
+        where:
+        code        | expected
+        "8FVC0000+" | neighborsOf("8FVC0000+")
+        "CFX30000+" | ["CFW20000+", "CFW30000+", "CFW40000+", "CFX20000+", "CFX40000+"]
+        "2V000000+" | ["2R000000+", "22000000+", "3R000000+", "3V000000+", "32000000+"]
+    }
+
+    private static List<String> neighborsOf(String code) {
+        OpenLocationCode olc = new OpenLocationCode()
+        OpenLocationCode.CodeArea area = olc.decode(code)
+        double height = area.latitudeHi - area.latitudeLo
+        double width = area.longitudeHi - area.longitudeLo
+        [[-1, -1], [-1, 0], [-1, 1], [0, -1], [0, 1], [1, -1], [1, 0], [1, 1]].collect {
+            olc.encode(area.latitudeCenter + it[0] * height, area.longitudeCenter + it[1] * width, area.codeLength)
+        }
+    }
+
+    def "Rings work outwards from a cell"(){
+        setup: "Finding the square around the cell"
+        long packed = OlcLong.parse(code)
+        def square = [] as Set
+        for (int latitudeSteps = -k; latitudeSteps <= k; latitudeSteps++) {
+            for (int longitudeSteps = -k; longitudeSteps <= k; longitudeSteps++) {
+                square << OlcCells.neighbor(packed, latitudeSteps, longitudeSteps)
+            }
+        }
+
+        when:
+        def rings = (0..k).collect { OlcCells.ring(packed, it) as List }
+
+        then:
+        rings[0] == [packed]
+        rings[1] == OlcCells.neighbors(packed) as List
+        rings.flatten().size() == square.size()
+        rings.flatten() as Set == square
+
+        where:
+        code          | k
+        "8FVC9G8F+6W" | 3
+        "8FVC0000+"   | 5
+        "CFX30000+"   | 4
+        "6VGX0000+"   | 2
+        "62000000+"   | 10
+    }
+
+    def "Distant rings are only as big as their border"(){
+        setup: "Parsing the code"
+        long packed = OlcLong.parse("8FVC9G8F+")
+
+        when:
+        long[] ring = OlcCells.ring(packed, 30000)
+
+        then:
+        (ring as Set).size() == ring.length
+        ring.length < 4 * 60001
+        ring.contains(OlcCells.neighbor(packed, -30000, 0))
+        ring.contains(OlcCells.neighbor(packed, 5, 30000))
+        !ring.contains(OlcCells.neighbor(packed, 0, 29999))
+    }
+
+    def "Disks hold the cells within the radius, nearest first"(){
+        setup: "Measuring distances as the disk does"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(5)
+        double metersPerDegree = 6371008.8 * Math.PI / 180
+        def distance = { double lat, double lng, OpenLocationCode.CodeArea area ->
+            double nearest = Math.max(area.latitudeLo, Math.min(area.latitudeHi, lat))
+            double gap = 0
+            if (lng < area.longitudeLo || lng > area.longitudeHi) {
+                double east = (area.longitudeLo - lng + 360) % 360
+                double west = (lng - area.longitudeHi + 360) % 360
+                gap = east < west ? east : west
+            }
+            double dx = gap * Math.cos(Math.toRadians(nearest))
+            return metersPerDegree * Math.sqrt(dx * dx + (lat - nearest) * (lat - nearest))
+        }
+
+        when:
+        long[] cells = OlcCells.disk(latitude, longitude, radius, codeLength)
+        def distances = cells.collect { distance(latitude, longitude, olc.decodeLong(it)) }
+        def codes = cells as Set
+        // Cells around the disk that are within the radius must be in it.
+        def missed = (0..<3000).findAll {
+            double reach = radius / metersPerDegree * 1.5 + 0.001
+            double lat = latitude + (random.nextDouble() * 2 - 1) * reach
+            double lng = longitude + (random.nextDouble() * 2 - 1) * reach / Math.cos(Math.toRadians(latitude > 89 ? 89 : latitude))
+            long cell = olc.encodeToLong(lat, lng, codeLength)
+            !codes.contains(cell) && distance(latitude, longitude, olc.decodeLong(cell)) <= radius
+        }
+
+        then:
+        cells[0] == olc.encodeToLong(latitude, longitude, codeLength)
+        codes.size() == cells.length
+        distances.every { it <= radius }
+        (1..<cells.length).every { distances[it - 1] <= distances[it] + 1e-6 }
+        missed.isEmpty()
+
+        where:
+        latitude | longitude  | radius | codeLength
+        47.3651  | 8.5251     | 500    | 10
+        47.3651  | 8.5251     | 0      | 10
+        0.0001   | 179.9995   | 200    | 10
+        -0.0001  | -179.9999  | 50     | 11
+        70.5     | 20.25      | 2000   | 8
+        89.99    | 0          | 3000   | 8
+    }
+
+    def "Parents drop digits and pad like encode"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        OpenLocationCode.CodeArea area = olc.decode(code)
+
+        expect:
+        OlcCells.parent(code, codeLength) == expected
+        expected == olc.encode(area.latitudeCenter, area.longitudeCenter, codeLength)
+        codeLength > OlcLong.MAX_DIGIT_COUNT_ ||
+                OlcCells.parent(OlcLong.parse(code), codeLength) == OlcLong.parse(expected)
+
+        where:
+        code               | codeLength | expected
+        "8FVC9G8F+6WXQ"    | 11         | "8FVC9G8F+6WX"
+        "8FVC9G8F+6WXQ"    | 10         | "8FVC9G8F+6W"
+        "8FVC9G8F+6WXQ"    | 8          | "8FVC9G8F+"
+        "8fvc9g8f+6w"      | 6          | "8FVC9G00+"
+        "8FVC9G8F+6W"      | 4          | "8FVC0000+"
+        "8FVC9G8F+6W"      | 2          | "8F000000+"
+        "8FVC9G8F+6WXQRV"  | 13         | "8FVC9G8F+6WXQR"
+    }
+
+    def "Parents need a length codes can have"(){
+        when:
+        OlcCells.parent(code, codeLength)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        code          | codeLength
+        "8FVC9G8F+6W" | 12
+        "8FVC9G8F+6W" | 7
+        "8FVC9G8F+6W" | 0
+    }
+
+    def "Children make up their parent"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        OpenLocationCode.CodeArea area = olc.decode(code)
+
+        when:
+        String[] children = OlcCells.children(code)
+        long[] packed = code.length() > 12 ? new long[0] : OlcCells.children(OlcLong.parse(code))
+
+        then:
+        children.length == count
+        (children as Set).size() == count
+        children.every { OlcCells.isAncestor(code, it) && OlcCells.parent(it, area.codeLength) == code }
+        children as Set == (0..<count).collect {
+            OpenLocationCode.CodeArea child = olc.decode(children[it])
+            olc.encode(child.latitudeCenter, child.longitudeCenter, child.codeLength)
+        } as Set
+        // Together they fill the parent exactly.
+        Math.abs(children.sum { olc.decode(it).with { (latitudeHi - latitudeLo) * (longitudeHi - longitudeLo) } } -
+                (area.latitudeHi - area.latitudeLo) * (area.longitudeHi - area.longitudeLo)) < 1e-9
+        packed.length == 0 || (packed.collect { OlcLong.toString(it) } == children as List &&
+                (1..<packed.length).every { packed[it - 1] < packed[it] })
+
+        where:
+        code           | count
+        "8F000000+"    | 400
+        "8FVC9G00+"    | 400
+        "8FVC9G8F+"    | 400
+        "8FVC9G8F+6W"  | 20
+        "8FVC9G8F+6WX" | 20
+    }
+
+    def "Ancestors are shorter cells that hold the code"(){
+        expect:
+        OlcCells.isAncestor(ancestor, descendant) == expected
+        OlcCells.isAncestor(OlcLong.parse(ancestor), OlcLong.parse(descendant)) == expected
+
+        where:
+        ancestor      | descendant     | expected
+        "8FVC0000+"   | "8FVC9G8F+6W"  | true
+        "8FVC9G8F+6W" | "8FVC9G8F+6WX" | true
+        "8FVC9G8F+6W" | "8FVC9G8F+6W"  | false
+        "8FVC9G8F+6W" | "8FVC0000+"    | false
+        "8FVC9H00+"   | "8FVC9G8F+6W"  | false
+    }
+
+    def "Neighbors need a full code"(){
+        when:
+        OlcCells.neighbors("9G8F+6W")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,122 @@
+import com.windlessuser.olc.OlcCover
+import com.windlessuser.olc.OlcLong
+import com.windlessuser.olc.OpenLocationCode
+import com.windlessuser.olc.PolygonCover
+import spock.lang.Specification
+
+class CoverTests extends Specification {
+
+    def "Box covers contain the box and stay within the cell count"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(3)
+
+        when:
+        long[] cells = OlcCover.coverBox(latLo,lngLo,latHi,lngHi,maxCells,maxLength)
+        def codes = cells.collect { OlcLong.toString(it).replace("+","").replace("0","") }
+
+        then:
+        cells.length <= maxCells
+        (1..<cells.length).every { cells[it - 1] < cells[it] }
+        (codes as Set).size() == codes.size()
+        // No cell contains another.
+        codes.every { a -> codes.every { b -> a == b || !b.startsWith(a) } }
+        // Every cell touches the box.
+        cells.every {
+            OpenLocationCode.CodeArea area = olc.decodeLong(it)
+            area.latitudeLo < (latHi > latLo ? latHi : latLo + 1e-9) && area.latitudeHi > latLo &&
+                    (lngLo <= lngHi ? area.longitudeLo < lngHi && area.longitudeHi > lngLo
+                            : area.longitudeLo < lngHi || area.longitudeHi > lngLo)
+        }
+        // Every location in the box is in a cell.
+        (0..<2000).every {
+            double latitude = latLo + random.nextDouble() * (latHi - latLo)
+            double width = lngLo <= lngHi ? lngHi - lngLo : lngHi - lngLo + 360
+            double longitude = lngLo + random.nextDouble() * width
+            String code = olc.encode(latitude, longitude, 12).replace("+","")
+            codes.any { code.startsWith(it) }
+        }
+
+        where:
+        latLo    | lngLo    | latHi    | lngHi    | maxCells | maxLength
+        47.365   | 8.525    | 47.372   | 8.531    | 8        | 12
+        47.365   | 8.525    | 47.372   | 8.531    | 64       | 12
+        47.365   | 8.525    | 47.372   | 8.531    | 1000     | 10
+        47.3651  | 8.5251   | 47.3651  | 8.5251   | 4        | 12
+        -10      | 170      | 10       | -170     | 16       | 8
+        10       | 10.3     | 10.5     | 10.1     | 40       | 4
+        10       | 10.3     | 10.5     | 10.1     | 1000     | 4
+        -90      | -180     | 90       | 180      | 200      | 4
+        10       | 0        | 30       | 20       | 1        | 10
+    }
+
+    def "A box on cell edges is covered exactly"(){
+        when:
+        long[] cells = OlcCover.coverBox(47.0,8.0,47.05,8.05,20,10)
+
+        then:
+        cells.collect { OlcLong.toString(it) } == ["8FVC2200+"]
+    }
+
+    def "Boxes wider than the cell count use two character cells"(){
+        when:
+        long[] cells = OlcCover.coverBox(-90,-180,90,180,10,10)
+
+        then:
+        cells.length == 162
+        cells.every { OlcLong.getCodeLength(it) == 2 }
+    }
+
+    def "Polygon covers classify locations like a point in polygon test"(){
+        setup: "Making the polygon"
+        Random random = new Random(9)
+        double[] latitudes = polygon.collect { it[0] } as double[]
+        double[] longitudes = polygon.collect { it[1] } as double[]
+        def inside = { double lat, double lng ->
+            boolean result = false
+            int j = latitudes.length - 1
+            for (int i = 0; i < latitudes.length; j = i++) {
+                if ((latitudes[i] > lat) != (latitudes[j] > lat) &&
+                        lng < (longitudes[j] - longitudes[i]) * (lat - latitudes[i]) / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                    result = !result
+                }
+            }
+            result
+        }
+
+        when:
+        PolygonCover cover = OlcCover.coverPolygon(latitudes,longitudes,codeLength)
+        def misplaced = (0..<5000).collect {
+            double lat = latitudes.toList().min() - 0.01 + random.nextDouble() * (latitudes.toList().max() - latitudes.toList().min() + 0.02)
+            double lng = longitudes.toList().min() - 0.01 + random.nextDouble() * (longitudes.toList().max() - longitudes.toList().min() + 0.02)
+            [lat, lng, cover.classify(lat, lng)]
+        }.findAll {
+            it[2] != PolygonCover.Position.BOUNDARY && (it[2] == PolygonCover.Position.INTERIOR) != inside(it[0], it[1])
+        }
+
+        then:
+        cover.boundaryCells.every { OlcLong.getCodeLength(it) == codeLength }
+        cover.interiorCells.every { OlcLong.getCodeLength(it) <= codeLength }
+        cover.interiorCells.length > 0
+        misplaced.isEmpty()
+
+        where:
+        polygon << [
+                [[47.36, 8.52], [47.38, 8.52], [47.37, 8.55]],
+                [[47.36, 8.52], [47.38, 8.52], [47.38, 8.56], [47.36, 8.56], [47.37, 8.54]],
+                (0..<2000).collect { [47.37 + 0.05 * Math.sin(it * Math.PI / 1000), 8.54 + 0.08 * Math.cos(it * Math.PI / 1000)] }
+        ]
+        codeLength << [10, 11, 10]
+    }
+
+    def "A cell-aligned square is all interior"(){
+        when:
+        PolygonCover cover = OlcCover.coverPolygon([47.0, 47.05, 47.05, 47.0] as double[],
+                [8.0, 8.0, 8.05, 8.05] as double[], 8)
+
+        then:
+        cover.interiorCells.collect { OlcLong.toString(it) } == ["8FVC2200+"]
+        cover.classify(47.01, 8.01) == PolygonCover.Position.INTERIOR
+        cover.classify(47.06, 8.01) != PolygonCover.Position.INTERIOR
+    }
+}
@@ -1,6 +1,13 @@
+import com.windlessuser.olc.MutableCodeArea
+import com.windlessuser.olc.Olc
 import com.windlessuser.olc.OpenLocationCode
 import org.apache.commons.csv.CSVFormat
 import spock.lang.Specification
+
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+
 /**
  * Created by marc on 8/14/15.
  */
@@ -26,6 +33,254 @@ class EncodingTests extends Specification{
         longitudeHi = Double.parseDouble(record.get(6))
     }
 
+    def "Encoding at the length of the expected code"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        expect:
+        olc.encode(latitude,longitude,codeLength).equalsIgnoreCase(code)
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("EncodingTests.csv").file)).records;
+        code = record.get(0)
+        latitude = Double.parseDouble(record.get(1))
+        longitude = Double.parseDouble(record.get(2))
+        codeLength = code.replace("+","").replace("0","").length()
+    }
+
+    def "Encoding into caller supplied buffers"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        char[] buffer = new char[20]
+        StringBuilder builder = new StringBuilder("code:")
+
+        when:
+        int written = olc.encodeTo(latitude,longitude,codeLength,buffer,2)
+        olc.encodeTo(latitude,longitude,codeLength,builder)
+
+        then:
+        new String(buffer,2,written) == olc.encode(latitude,longitude,codeLength)
+        builder.toString() == "code:" + olc.encode(latitude,longitude,codeLength)
+
+        where:
+        latitude  | longitude     | codeLength
+        20.375    | 2.775         | 6
+        47.0000625| 8.0000625     | 10
+        20.3701135| 2.78223535156 | 13
+        -89.5     | -179.5        | 15
+    }
+
+    def "Decoding into a reusable area"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        MutableCodeArea area = new MutableCodeArea()
+
+        when:
+        olc.decodeInto(code,area)
+
+        then:
+        Math.abs(area.latitudeLo - latitudeLo) < 1e-10
+        Math.abs(area.longitudeLo - longitudeLo) < 1e-10
+        Math.abs(area.latitudeHi - latitudeHi) < 1e-10
+        Math.abs(area.longitudeHi - longitudeHi) < 1e-10
+        area.latitudeCenter == olc.decode(code).latitudeCenter
+        area.longitudeCenter == olc.decode(code).longitudeCenter
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("EncodingTests.csv").file)).records;
+        code = record.get(0)
+        latitudeLo = Double.parseDouble(record.get(3))
+        longitudeLo = Double.parseDouble(record.get(4))
+        latitudeHi = Double.parseDouble(record.get(5))
+        longitudeHi = Double.parseDouble(record.get(6))
+    }
+
+    def "Encoding and decoding ASCII bytes in arrays and buffers"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        String code = olc.encode(latitude,longitude,codeLength)
+        byte[] array = new byte[24]
+        ByteBuffer heap = ByteBuffer.allocate(24)
+        ByteBuffer direct = ByteBuffer.allocateDirect(24)
+        heap.position(3)
+        direct.position(3)
+        MutableCodeArea fromArray = new MutableCodeArea()
+        MutableCodeArea fromHeap = new MutableCodeArea()
+        MutableCodeArea fromDirect = new MutableCodeArea()
+
+        when:
+        int written = olc.encodeTo(latitude,longitude,codeLength,array,2)
+        olc.encodeTo(latitude,longitude,codeLength,heap)
+        olc.encodeTo(latitude,longitude,codeLength,direct)
+        olc.decodeInto(array,2,written,fromArray)
+        olc.decodeInto(heap,3,written,fromHeap)
+        olc.decodeInto(direct,3,written,fromDirect)
+
+        then:
+        new String(array,2,written,"US-ASCII") == code
+        heap.position() == 3 + written
+        direct.position() == 3 + written
+        (0..<written).every { array[2 + it] == heap.get(3 + it) && array[2 + it] == direct.get(3 + it) }
+        [fromArray, fromHeap, fromDirect].every {
+            it.latitudeLo == olc.decode(code).latitudeLo && it.longitudeLo == olc.decode(code).longitudeLo &&
+                    it.latitudeHi == olc.decode(code).latitudeHi && it.longitudeHi == olc.decode(code).longitudeHi
+        }
+
+        where:
+        latitude  | longitude     | codeLength
+        20.375    | 2.775         | 6
+        47.0000625| 8.0000625     | 10
+        20.3701135| 2.78223535156 | 13
+        -89.5     | -179.5        | 15
+    }
+
+    def "Decoding bytes in lower case"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        MutableCodeArea area = new MutableCodeArea()
+
+        when:
+        olc.decodeInto("8fvc9g8f+6w".getBytes("US-ASCII"),0,11,area)
+
+        then:
+        area.latitudeCenter == olc.decode("8FVC9G8F+6W").latitudeCenter
+        area.longitudeCenter == olc.decode("8FVC9G8F+6W").longitudeCenter
+    }
+
+    def "Decoding invalid bytes"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        olc.decodeInto(bytes as byte[],0,bytes.size(),new MutableCodeArea())
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        bytes << ["9G8F+6W".bytes.toList(), "8FVC9G8F".bytes.toList(),
+                  "8FVC9G8F+6".bytes.toList() + [(byte) -74], "8FVC9G8F+".bytes.toList() + [(byte) 0xC6, (byte) 0xB7]]
+    }
+
+    def "Decoding bytes accepts the same codes as decoding characters"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        def decodes = { Closure decode ->
+            try {
+                MutableCodeArea area = new MutableCodeArea()
+                decode(area)
+                return [area.latitudeLo, area.longitudeLo, area.latitudeHi, area.longitudeHi]
+            } catch (IllegalArgumentException e) {
+                return null
+            }
+        }
+        byte[] bytes = ("xx" + code + "yy").getBytes("US-ASCII")
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length)
+        direct.put(bytes)
+
+        expect:
+        decodes { olc.decodeInto(bytes,2,code.length(),it) } == decodes { olc.decodeInto(code,it) }
+        decodes { olc.decodeInto(direct,2,code.length(),it) } == decodes { olc.decodeInto(code,it) }
+
+        where:
+        code << ["ValidFullCodes.csv", "ValidShortCodes.csv", "InvalidCodes.csv"].collectMany {
+            CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource(it).file)).records.collect { it.get(0) }
+        }
+    }
+
+    def "Appending to a target that fails part way"(){
+        setup: "Creating the olc, a buffer that is too small and a writer that fails on its fourth write"
+        OpenLocationCode olc = new OpenLocationCode()
+        CharBuffer buffer = CharBuffer.allocate(16)
+        buffer.position(8)
+        StringBuilder written = new StringBuilder()
+        Writer writer = new Writer() {
+            void write(char[] chars, int off, int len) {
+                if (written.length() == 3) {
+                    throw new IOException("full")
+                }
+                written.append(chars, off, len)
+            }
+            void flush() {}
+            void close() {}
+        }
+
+        when: "The buffer is checked before anything is written"
+        olc.encodeTo(47.0,8.0,10,buffer)
+
+        then:
+        thrown(BufferOverflowException)
+        buffer.position() == 8
+        buffer.get(8) == (char) 0
+
+        when: "The writer keeps the start of the code"
+        olc.encodeTo(47.0,8.0,10,writer)
+
+        then:
+        thrown(IOException)
+        written.toString() == olc.encode(47.0,8.0,10).substring(0, 3)
+    }
+
+    def "Byte ranges and buffers that are too small"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16)
+        buffer.position(8)
+
+        when:
+        olc.encodeTo(47.0,8.0,10,buffer)
+
+        then:
+        thrown(BufferOverflowException)
+        buffer.position() == 8
+        buffer.get(8) == 0
+
+        when:
+        olc.encodeTo(47.0,8.0,10,new byte[16],6)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+
+        when:
+        buffer.limit(10)
+        olc.decodeInto(buffer,0,11,new MutableCodeArea())
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "Static methods agree with an instance across threads"(){
+        setup: "Reading the expected codes"
+        OpenLocationCode olc = new OpenLocationCode()
+        def records = CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("EncodingTests.csv").file)).records
+        def mismatches = Collections.synchronizedList([])
+
+        when:
+        def threads = (1..4).collect {
+            Thread.start {
+                MutableCodeArea area = new MutableCodeArea()
+                100.times {
+                    records.each { record ->
+                        String code = record.get(0)
+                        double latitude = Double.parseDouble(record.get(1))
+                        double longitude = Double.parseDouble(record.get(2))
+                        int codeLength = code.replace("+","").replace("0","").length()
+                        Olc.decodeInto(code, area)
+                        if (Olc.encode(latitude, longitude, codeLength) != olc.encode(latitude, longitude, codeLength)
+                                || Olc.decode(code).latitudeLo != area.latitudeLo
+                                || Olc.decode(code).longitudeLo != area.longitudeLo) {
+                            mismatches << code
+                        }
+                    }
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        mismatches.isEmpty()
+    }
+
     def validateDecoding(OpenLocationCode.CodeArea grid, latHi,latLo,lonHi,lonLow){
         assert grid.latitudeHi == latHi
         assert grid.latitudeLo == latLo
@@ -0,0 +1,112 @@
+import com.windlessuser.olc.OlcCover
+import com.windlessuser.olc.OlcIndex
+import com.windlessuser.olc.OpenLocationCode
+import spock.lang.Shared
+import spock.lang.Specification
+
+class IndexTests extends Specification {
+
+    @Shared OpenLocationCode olc = new OpenLocationCode()
+    @Shared double[] latitudes
+    @Shared double[] longitudes
+    @Shared OlcIndex<Integer> index
+
+    def setupSpec(){
+        // Cluster the points so that small cells and boxes have something in them.
+        Random random = new Random(5)
+        latitudes = new double[20000]
+        longitudes = new double[20000]
+        for (int i = 0; i < 20000; i++) {
+            boolean clustered = i % 2 == 0
+            latitudes[i] = clustered ? 47.36 + random.nextDouble() * 0.02 : random.nextDouble() * 180 - 90
+            longitudes[i] = clustered ? 8.52 + random.nextDouble() * 0.02 : random.nextDouble() * 360 - 180
+        }
+        index = new OlcIndex<Integer>(latitudes, longitudes, (0..<20000).toList(), 11)
+    }
+
+    def "Entries are in code order"(){
+        expect:
+        index.size() == 20000
+        (1..<20000).every { index.getCode(it - 1) <= index.getCode(it) }
+    }
+
+    def "Cell lookups find the codes that start with the cell"(){
+        setup: "Finding the expected values by comparing strings"
+        String prefix = cell.replace("+","").replace("0","")
+        def expected = (0..<20000).findAll {
+            olc.encode(latitudes[it],longitudes[it],11).replace("+","").startsWith(prefix)
+        }
+        List<Integer> found = []
+
+        when:
+        int count = index.findInCell(cell,found)
+
+        then:
+        count == expected.size()
+        found.sort() == expected
+
+        where:
+        cell << ["8F000000+", "8FVC0000+", "8FVC9G00+", "8FVC9G8F+", "8FVC9G8F+6X", "2C000000+"]
+    }
+
+    def "Point lookups find the other entries in the same cell"(){
+        setup: "Taking an entry as the point"
+        List<Integer> found = []
+        String code = olc.encode(latitudes[entry],longitudes[entry],11)
+
+        when:
+        index.findAt(latitudes[entry],longitudes[entry],found)
+
+        then:
+        found.contains(entry)
+        found.every { olc.encode(latitudes[it],longitudes[it],11) == code }
+
+        where:
+        entry << [0, 2, 17, 19998]
+    }
+
+    def "Box lookups find the entries inside the box"(){
+        setup: "Finding the expected values by checking every entry"
+        def expected = (0..<20000).findAll {
+            latitudes[it] >= latLo && latitudes[it] <= latHi &&
+                    (lngLo <= lngHi ? longitudes[it] >= lngLo && longitudes[it] <= lngHi
+                            : longitudes[it] >= lngLo || longitudes[it] <= lngHi)
+        }
+        List<Integer> found = []
+
+        when:
+        int count = index.findInBox(latLo,lngLo,latHi,lngHi,found)
+
+        then:
+        count == expected.size()
+        found.sort() == expected
+
+        where:
+        latLo   | lngLo   | latHi   | lngHi
+        -90     | -180    | 90      | 180
+        47.365  | 8.525   | 47.372  | 8.531
+        47.3601 | 8.5201  | 47.3602 | 8.5202
+        -10     | 170     | 10      | -170
+        0       | 0       | 30      | 60
+    }
+
+    def "Box lookups reject a box upside down, as box covers do"(){
+        when:
+        index.findInBox(latLo,8.52,latHi,8.54,[])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        OlcCover.coverBox(latLo,8.52,latHi,8.54,16,10)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        latLo  | latHi
+        47.38  | 47.36
+        95     | -95
+        90     | 89.9
+    }
+}
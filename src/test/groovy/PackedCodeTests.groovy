@@ -0,0 +1,59 @@
+import com.windlessuser.olc.OlcLong
+import com.windlessuser.olc.OpenLocationCode
+import org.apache.commons.csv.CSVFormat
+import spock.lang.Specification
+
+class PackedCodeTests extends Specification {
+
+    def "Packing and unpacking codes"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        long packed = olc.encodeToLong(latitude,longitude,codeLength)
+
+        then:
+        OlcLong.toString(packed) == code.toUpperCase()
+        OlcLong.parse(code) == packed
+        OlcLong.getCodeLength(packed) == codeLength
+        olc.decodeLong(packed).latitudeLo == latitudeLo
+        olc.decodeLong(packed).longitudeLo == longitudeLo
+        olc.decodeLong(packed).latitudeHi == latitudeHi
+        olc.decodeLong(packed).longitudeHi == longitudeHi
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("EncodingTests.csv").file)).records
+                .findAll { it.get(0).length() <= OlcLong.MAX_DIGIT_COUNT_ + 1 };
+        code = record.get(0)
+        latitude = Double.parseDouble(record.get(1))
+        longitude = Double.parseDouble(record.get(2))
+        latitudeLo = Double.parseDouble(record.get(3))
+        longitudeLo = Double.parseDouble(record.get(4))
+        latitudeHi = Double.parseDouble(record.get(5))
+        longitudeHi = Double.parseDouble(record.get(6))
+        codeLength = code.replace("+","").replace("0","").length()
+    }
+
+    def "Packed codes sort in code order"(){
+        expect:
+        OlcLong.compare(OlcLong.parse(a), OlcLong.parse(b)) < 0
+        a.compareTo(b) < 0
+
+        where:
+        a              | b
+        "7FG40000+"    | "7FG49Q00+"
+        "7FG49Q00+"    | "7FG49QCJ+"
+        "7FG49QCJ+"    | "7FG49QCJ+2V"
+        "7FG49QCJ+2V"  | "7FG49QCJ+2VX"
+        "7FG49QCJ+2VX" | "7FG49QCJ+3V"
+        "22222222+22"  | "CFX30000+"
+    }
+
+    def "Codes that are too long cannot be packed"(){
+        when:
+        OlcLong.parse("7FG49QCJ+2VXGJX")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
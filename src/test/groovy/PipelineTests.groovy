@@ -0,0 +1,83 @@
+import com.windlessuser.olc.OlcPipeline
+import com.windlessuser.olc.OpenLocationCode
+import com.windlessuser.olc.ParsedCode
+import org.apache.commons.csv.CSVFormat
+import spock.lang.Specification
+
+class PipelineTests extends Specification {
+
+    def "Encoding a column matches encode"(){
+        setup: "Creating the olc and pipeline"
+        OpenLocationCode olc = new OpenLocationCode()
+        OlcPipeline pipeline = new OlcPipeline(',' as char, false)
+        File file = new File(ValidityTests.class.getResource("EncodingTests.csv").file)
+        StringWriter out = new StringWriter()
+
+        when:
+        long count = pipeline.encode(new FileReader(file),out,1,2,11)
+        def records = CSVFormat.EXCEL.parse(new StringReader(out.toString())).records
+
+        then:
+        count == records.size()
+        records.every {
+            it.get(7) == olc.encode(Double.parseDouble(it.get(1)),Double.parseDouble(it.get(2)),11)
+        }
+    }
+
+    def "Decoding a column matches decode"(){
+        setup: "Creating the olc and pipeline"
+        OpenLocationCode olc = new OpenLocationCode()
+        OlcPipeline pipeline = new OlcPipeline('\t' as char, true)
+        String input = "name\tcode\n" + (0..<10000).collect { "place$it\t" + olc.encode(it / 200.0, it / 100.0, 10) }.join("\n")
+        StringWriter out = new StringWriter()
+
+        when:
+        long count = pipeline.decode(new StringReader(input),out,1)
+        def lines = out.toString().readLines()
+
+        then:
+        count == 10000
+        lines[0] == "name\tcode\tlatitude\tlongitude"
+        lines.tail().every {
+            def fields = it.split("\t")
+            OpenLocationCode.CodeArea area = olc.decode(fields[1])
+            Double.parseDouble(fields[2]) == area.latitudeCenter && Double.parseDouble(fields[3]) == area.longitudeCenter
+        }
+    }
+
+    def "Validating a column matches the validity checks"(){
+        setup: "Creating the olc and pipeline"
+        OpenLocationCode olc = new OpenLocationCode()
+        OlcPipeline pipeline = new OlcPipeline(',' as char, false)
+        StringWriter out = new StringWriter()
+
+        when:
+        pipeline.validate(new InputStreamReader(ValidityTests.class.getResourceAsStream(file), "UTF-8"),out,0)
+        def records = CSVFormat.EXCEL.parse(new StringReader(out.toString())).records
+
+        then:
+        records.every { it.get(4) == olc.parse(it.get(0)).kind.name() }
+
+        where:
+        file << ["ValidFullCodes.csv", "ValidShortCodes.csv", "InvalidCodes.csv"]
+    }
+
+    def "Bad records are reported"(){
+        setup: "Creating the pipeline"
+        OlcPipeline pipeline = new OlcPipeline(',' as char, false)
+
+        when:
+        pipeline.encode(new StringReader("1,2\n3,north\n"),new StringWriter(),0,1,10)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains("Record 2")
+
+        when:
+        pipeline.encode(new StringReader("1,2\n3,4\nInfinity,5\n"),new StringWriter(),0,1,10)
+
+        then:
+        IllegalArgumentException infinite = thrown()
+        infinite.message.contains("Record 3 column 0 is not a number")
+    }
+}
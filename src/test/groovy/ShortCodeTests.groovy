@@ -1,4 +1,5 @@
 import com.windlessuser.olc.OpenLocationCode
+import com.windlessuser.olc.RecoveryCache
 import org.apache.commons.csv.CSVFormat
 import spock.lang.Specification
 
@@ -23,4 +24,210 @@ class ShortCodeTests extends Specification{
         shortCode = record.get(3)
 
     }
+
+    def "Shortening and extending parsed codes"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        expect:
+        olc.shorten(olc.parse(code),latitude,longitude) == shortCode
+        olc.recoverNearest(olc.parse(shortCode),latitude,longitude) == code
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("ShortCodeTests.csv").file)).records;
+        code = record.get(0)
+        latitude = Double.parseDouble(record.get(1))
+        longitude = Double.parseDouble(record.get(2))
+        shortCode = record.get(3)
+    }
+
+    def "A recovery cache gives the same codes and counts its hits"(){
+        setup: "Creating the olc and a cache"
+        OpenLocationCode olc = new OpenLocationCode()
+        RecoveryCache cache = new RecoveryCache(1000)
+        def records = CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("ShortCodeTests.csv").file)).records
+
+        when:
+        def first = records.collect { cache.recoverNearest(it.get(3),Double.parseDouble(it.get(1)),Double.parseDouble(it.get(2))) }
+        def second = records.collect { cache.recoverNearest(it.get(3),Double.parseDouble(it.get(1)),Double.parseDouble(it.get(2))) }
+
+        then:
+        first == records.collect { it.get(0) }
+        second == first
+        cache.missCount == records.size()
+        cache.hitCount == records.size()
+        cache.size() == records.size()
+    }
+
+    def "A recovery cache keeps at most its capacity"(){
+        setup: "Creating the olc and a small cache"
+        OpenLocationCode olc = new OpenLocationCode()
+        RecoveryCache cache = new RecoveryCache(64)
+        Random random = new Random(21)
+
+        when:
+        def mismatched = (0..<2000).findAll {
+            double latitude = random.nextDouble() * 2 + 47
+            double longitude = random.nextDouble() * 2 + 8
+            String shortCode = ["9G8F+6W", "CJ+2VX", "+2VX"].get(it % 3)
+            cache.recoverNearest(shortCode,latitude,longitude) != olc.recoverNearest(shortCode,latitude,longitude)
+        }
+
+        then:
+        mismatched.isEmpty()
+        cache.size() <= 64
+        cache.missCount == 2000
+        cache.hitCount == 0
+    }
+
+    def "A recovery cache never holds more than its capacity"(){
+        setup: "Creating a cache"
+        RecoveryCache cache = new RecoveryCache(capacity)
+        Random random = new Random(capacity)
+
+        when:
+        def sizes = (0..<500).collect {
+            cache.recoverNearest("CJ+2VX",random.nextDouble() * 2 + 47,random.nextDouble() * 2 + 8)
+            cache.size()
+        }
+
+        then:
+        cache.capacity == capacity
+        sizes.every { it <= capacity }
+        sizes.max() >= capacity / 2
+
+        where:
+        capacity << [1, 3, 17, 100]
+    }
+
+    def "A recovery cache doesn't cache failures"(){
+        setup: "Creating a cache"
+        RecoveryCache cache = new RecoveryCache(16)
+
+        when:
+        cache.recoverNearest("9G8F+6WXXX0",47.0,8.0)
+
+        then:
+        thrown(IllegalArgumentException)
+        cache.size() == 0
+        cache.missCount == 1
+    }
+
+    def "Batch recovery matches recovering one code at a time"(){
+        setup: "Creating the olc and short codes around the reference"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(17)
+        String[] shortCodes = (0..<1000).collect {
+            String code = olc.encode(latitude + random.nextGaussian() * 0.3, longitude + random.nextGaussian() * 0.3,
+                    [10, 11, 12, 13].get(it % 4))
+            it % 50 == 0 ? code : code.substring([2, 4, 6, 8].get(it % 4 == 0 ? 3 : random.nextInt(4)))
+        } as String[]
+        String[] recovered = new String[shortCodes.length]
+
+        when:
+        olc.recoverNearestBatch(shortCodes,latitude,longitude,recovered)
+
+        then:
+        (0..<shortCodes.length).every { recovered[it] == olc.recoverNearest(shortCodes[it],latitude,longitude) }
+
+        where:
+        latitude | longitude
+        47.3651  | 8.5251
+        -41.2865 | 174.7762
+        89.9     | 179.95
+        -89.9    | -179.95
+        0        | 0
+    }
+
+    def "Batch recovery matches the test data"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        String[] recovered = new String[1]
+
+        when:
+        olc.recoverNearestBatch([shortCode] as String[],latitude,longitude,recovered)
+
+        then:
+        recovered[0] == code
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("ShortCodeTests.csv").file)).records;
+        code = record.get(0)
+        latitude = Double.parseDouble(record.get(1))
+        longitude = Double.parseDouble(record.get(2))
+        shortCode = record.get(3)
+    }
+
+    def "Batch recovery rejects invalid codes"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        olc.recoverNearestBatch(["9G8F+6W", shortCode] as String[],47.0,8.0,new String[2])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        shortCode << ["9G8F+6WXXX0", "XXXXXXXX+", "8FVC9G8F", null]
+    }
+
+    def "Batch shortening matches shortening one code at a time"(){
+        setup: "Creating the olc and codes around the reference"
+        OpenLocationCode olc = new OpenLocationCode()
+        Random random = new Random(23)
+        String[] codes = (0..<1000).collect {
+            double spread = [0.001, 0.02, 0.2, 2].get(it % 4)
+            String code = olc.encode(latitude + random.nextGaussian() * spread, longitude + random.nextGaussian() * spread,
+                    [8, 10, 11, 12].get(random.nextInt(4)))
+            it % 3 == 0 ? code.toLowerCase() : code
+        } as String[]
+        String[] shortened = new String[codes.length]
+
+        when:
+        olc.shortenBatch(codes,latitude,longitude,shortened)
+
+        then:
+        (0..<codes.length).every { shortened[it] == olc.shorten(codes[it],latitude,longitude) }
+
+        where:
+        latitude | longitude
+        47.3651  | 8.5251
+        -41.2865 | 174.7762
+        89.9     | 179.95
+        0        | 0
+    }
+
+    def "Batch shortening matches the test data"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+        String[] shortened = new String[1]
+
+        when:
+        olc.shortenBatch([code] as String[],latitude,longitude,shortened)
+
+        then:
+        shortened[0] == shortCode
+
+        where:
+        record << CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource("ShortCodeTests.csv").file)).records;
+        code = record.get(0)
+        latitude = Double.parseDouble(record.get(1))
+        longitude = Double.parseDouble(record.get(2))
+        shortCode = record.get(3)
+    }
+
+    def "Batch shortening rejects short, padded and invalid codes"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        olc.shortenBatch(["8FVC9G8F+6W", code] as String[],47.0,8.0,new String[2])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        code << ["9G8F+6W", "8FVC0000+", "XXXXXXXX+", null]
+    }
 }
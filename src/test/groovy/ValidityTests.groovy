@@ -1,4 +1,5 @@
 import com.windlessuser.olc.OpenLocationCode
+import com.windlessuser.olc.ParsedCode
 import org.apache.commons.csv.CSVFormat
 import spock.lang.Specification
 
@@ -60,4 +61,42 @@ class ValidityTests extends Specification {
         isFull = Boolean.parseBoolean record.get(3).toUpperCase()
 
     }
+
+    def "Parsed codes agree with the validity checks"(){
+        setup: "Creating the olc"
+        OpenLocationCode olc = new OpenLocationCode()
+
+        when:
+        ParsedCode parsed = olc.parse(code)
+
+        then:
+        parsed.valid == isValid
+        parsed.short == isShort
+        parsed.full == isFull
+        !parsed.valid || parsed.separatorIndex == code.indexOf("+")
+        parsed.padded == (parsed.valid && code.contains("0"))
+
+        where:
+        record << ["ValidFullCodes.csv", "ValidShortCodes.csv", "InvalidCodes.csv"].collectMany {
+            CSVFormat.EXCEL.parse( new FileReader(ValidityTests.class.getResource(it).file)).records
+        }
+        code = record.get(0)
+        isValid = Boolean.parseBoolean(record.get(1).toUpperCase())
+        isShort = Boolean.parseBoolean record.get(2).toUpperCase()
+        isFull = Boolean.parseBoolean record.get(3).toUpperCase()
+    }
+
+    def "Characters and bytes convert to digit values in either case"(){
+        expect:
+        (0..<65536).every { int c ->
+            int expected = c < 128 ? OpenLocationCode.CODE_ALPHABET_.indexOf(Character.toUpperCase((char) c) as int) : -1
+            OpenLocationCode.charToDigit(c) == expected
+        }
+        (-128..127).every { int b ->
+            OpenLocationCode.charToDigit((byte) b) == (b < 0 ? -1 : OpenLocationCode.charToDigit(b))
+        }
+        OpenLocationCode.charToDigit((int) ('+' as char)) == -1
+        OpenLocationCode.charToDigit((int) ('0' as char)) == -1
+        OpenLocationCode.charToDigit((int) ('x' as char)) == 19
+    }
 }